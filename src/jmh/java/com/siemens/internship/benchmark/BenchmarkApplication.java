@@ -0,0 +1,67 @@
+package com.siemens.internship.benchmark;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.siemens.internship.InternshipApplication;
+import com.siemens.internship.model.ItemStatus;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the application without the web layer against a private in-memory H2 database and
+ * fills the item table, so that benchmarks measure the service and persistence path only.
+ */
+final class BenchmarkApplication {
+
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start(int tableSize) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(InternshipApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "logging.level.root=WARN")
+                .run();
+        seed(context.getBean(JdbcTemplate.class), tableSize);
+        return context;
+    }
+
+    /**
+     * Puts the item table back to what start(tableSize) left: items inserted since are deleted,
+     * every seeded item is NEW at version 0 again, and the item cache is emptied. Benchmarks that
+     * change items call this before every iteration, so no iteration runs against the leftovers
+     * of the previous one.
+     */
+    static void reset(ConfigurableApplicationContext context, int tableSize) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM item WHERE id > ?", tableSize);
+        jdbcTemplate.update("UPDATE item SET status = ?, version = 0 WHERE status <> ? OR version <> 0",
+                ItemStatus.NEW.getCode(), ItemStatus.NEW.getCode());
+        context.getBean("itemCache", Cache.class).invalidateAll();
+    }
+
+    /**
+     * Inserts tableSize items with IDs 1..tableSize through JDBC batches, which is much faster than
+     * going through JPA, then moves the ID sequence past them so that later inserts do not collide.
+     */
+    private static void seed(JdbcTemplate jdbcTemplate, int tableSize) {
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long id = 1; id <= tableSize; id++) {
+            batch.add(new Object[]{id, "item " + id, "benchmark item " + id, ItemStatus.NEW.getCode(), "item" + id + "@example.com", 0L});
+            if (batch.size() == SEED_BATCH_SIZE || id == tableSize) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO item (id, name, description, status, email, version) VALUES (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        jdbcTemplate.execute("ALTER SEQUENCE item_seq RESTART WITH " + (tableSize + 1_000));
+    }
+}
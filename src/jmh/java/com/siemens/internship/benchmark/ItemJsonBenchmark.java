@@ -0,0 +1,63 @@
+package com.siemens.internship.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing items to JSON, for a single item and for a page of items, with the
+ * ObjectMapper the application configures for its responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ItemJsonBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    ObjectWriter itemWriter;
+    ObjectWriter listWriter;
+    Item item;
+    List<Item> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper;
+        try (ConfigurableApplicationContext context = BenchmarkApplication.start(0)) {
+            objectMapper = context.getBean(ObjectMapper.class);
+        }
+        itemWriter = objectMapper.writerFor(Item.class);
+        listWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, Item.class));
+        item = newItem(1);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            page.add(newItem(id));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeItem() throws JsonProcessingException {
+        return itemWriter.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return listWriter.writeValueAsBytes(page);
+    }
+
+    private static Item newItem(long id) {
+        return new Item(id, "item " + id, "a description of item " + id + " that is a few dozen characters long",
+                ItemStatus.NEW, "item" + id + "@example.com", 0L);
+    }
+}
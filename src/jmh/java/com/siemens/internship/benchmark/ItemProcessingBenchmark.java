@@ -0,0 +1,59 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.ProcessingResult;
+import com.siemens.internship.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock time of one full processing run over the table, per-item pipeline versus the
+ * set-based bulk mode. processItemsAsync() is the per-item pipeline plus a fixed simulated
+ * 2 second delay, so the pipeline is measured directly through processItems().
+ * Both modes mark every item PROCESSED, so the table is reset before each iteration; otherwise
+ * every run after the first would find nothing to do.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class ItemProcessingBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int tableSize;
+
+    @Param({"1000"})
+    int chunkSize;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(tableSize);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetItems() {
+        BenchmarkApplication.reset(context, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ProcessingResult perItem() {
+        return itemService.processItems(item -> { }).join();
+    }
+
+    @Benchmark
+    public long bulk() {
+        return itemService.processItemsInBulk(chunkSize, chunk -> { });
+    }
+}
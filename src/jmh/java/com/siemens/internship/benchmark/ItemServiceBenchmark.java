@@ -0,0 +1,66 @@
+package com.siemens.internship.benchmark;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the single-item and full-table read/write paths of ItemService against embedded H2.
+ * save() inserts a row per call, so the table is reset to tableSize items before each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemServiceBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int tableSize;
+
+    ConfigurableApplicationContext context;
+    ItemService itemService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start(tableSize);
+        itemService = context.getBean(ItemService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetItems() {
+        BenchmarkApplication.reset(context, tableSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Item> findById() {
+        return itemService.findById(ThreadLocalRandom.current().nextLong(1, tableSize + 1));
+    }
+
+    @Benchmark
+    public Item save() {
+        return itemService.save(new Item(null, "benchmark", "saved by ItemServiceBenchmark", ItemStatus.NEW, "bench@example.com", null));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 5)
+    public List<Item> findAll() {
+        return itemService.findAll();
+    }
+}
@@ -0,0 +1,374 @@
+package com.siemens.internship.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Closed-loop load test of the HTTP API. Every virtual user sends a request, waits for the
+ * response and sends the next one right away, so the load follows what the server can take and
+ * throughput and latency are measured together. Requests issued during the warmup are not
+ * recorded. Run with
+ *   mvn -Ploadtest -DskipTests verify [-Dloadtest.args="--profiles=default,throughput,latency"]
+ * Options:
+ *   --profiles=a,b   start the application once per Spring profile, each in a fresh JVM
+ *                    (default: default,throughput,latency)
+ *   --url=...        measure an application that is already running instead
+ *   --users=32 --warmup=10s --duration=30s --items=10000
+ *   --mix=read:70,page:10,create:8,patch:8,batch:3,process:1
+ *                    relative weights of the operations (see Operation); a PROCESS is counted
+ *                    from starting the job until polling sees it finish, and since concurrent
+ *                    users join the running job, a higher weight does not start more jobs
+ * The started applications share the machine with the clients, which is good enough to compare
+ * profiles; for absolute numbers, run the application elsewhere and pass --url.
+ * Prints requests, throughput and latency percentiles per profile and operation, and writes
+ * them to target/loadtest-results.csv. Requests rejected by admission control (429) are counted
+ * apart from errors.
+ */
+public final class LoadTest {
+
+    private static final int SEED_CHUNK_SIZE = 1000;
+    private static final int BATCH_SIZE = 20;
+    private static final Duration JOB_POLL_INTERVAL = Duration.ofMillis(100);
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String ITEM_JSON =
+            "{\"name\":\"%s\",\"description\":\"created by the load test\",\"status\":\"NEW\",\"email\":\"load@example.com\"}";
+
+    private LoadTest() {
+    }
+
+    enum Operation {
+        // single item by ID, served from the item cache once warm
+        READ {
+            @Override
+            HttpRequest request(URI base, long[] ids, ThreadLocalRandom random) {
+                return HttpRequest.newBuilder(base.resolve("/api/items/" + ids[random.nextInt(ids.length)])).build();
+            }
+        },
+        // first keyset page
+        PAGE {
+            @Override
+            HttpRequest request(URI base, long[] ids, ThreadLocalRandom random) {
+                return HttpRequest.newBuilder(base.resolve("/api/items?limit=50")).build();
+            }
+        },
+        CREATE {
+            @Override
+            HttpRequest request(URI base, long[] ids, ThreadLocalRandom random) {
+                return HttpRequest.newBuilder(base.resolve("/api/items"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(ITEM_JSON.formatted("load")))
+                        .build();
+            }
+        },
+        // status change of a single item; NEW and PROCESSED can always move to each other
+        PATCH {
+            @Override
+            HttpRequest request(URI base, long[] ids, ThreadLocalRandom random) {
+                String status = random.nextBoolean() ? "\"PROCESSED\"" : "\"NEW\"";
+                return HttpRequest.newBuilder(base.resolve("/api/items/" + ids[random.nextInt(ids.length)] + "/status"))
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofString(status))
+                        .build();
+            }
+        },
+        // batch update of BATCH_SIZE consecutive seeded items back to NEW
+        BATCH {
+            @Override
+            HttpRequest request(URI base, long[] ids, ThreadLocalRandom random) {
+                int from = random.nextInt(Math.max(1, ids.length - BATCH_SIZE + 1));
+                String body = Arrays.stream(ids, from, Math.min(ids.length, from + BATCH_SIZE))
+                        .mapToObj(id -> "{\"id\":" + id + "," + ITEM_JSON.formatted("batch " + id).substring(1))
+                        .collect(Collectors.joining(",", "[", "]"));
+                return HttpRequest.newBuilder(base.resolve("/api/items/batch"))
+                        .header("Content-Type", "application/json")
+                        .PUT(HttpRequest.BodyPublishers.ofString(body))
+                        .build();
+            }
+        },
+        // starts a processing job, or joins the one running, and polls it until it has finished
+        PROCESS {
+            @Override
+            HttpRequest request(URI base, long[] ids, ThreadLocalRandom random) {
+                return HttpRequest.newBuilder(base.resolve("/api/items/process"))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build();
+            }
+
+            @Override
+            int send(HttpClient client, URI base, long[] ids, ThreadLocalRandom random)
+                    throws IOException, InterruptedException {
+                HttpResponse<String> started = client.send(request(base, ids, random), HttpResponse.BodyHandlers.ofString());
+                if (started.statusCode() < 200 || started.statusCode() >= 300) {
+                    return started.statusCode();
+                }
+                HttpRequest poll = HttpRequest.newBuilder(
+                        base.resolve("/api/items/process/jobs/" + JSON.readTree(started.body()).get("id").asText())).build();
+                while (true) {
+                    Thread.sleep(JOB_POLL_INTERVAL);
+                    HttpResponse<String> job = client.send(poll, HttpResponse.BodyHandlers.ofString());
+                    if (job.statusCode() == 429) {
+                        continue;
+                    }
+                    if (job.statusCode() != 200) {
+                        return job.statusCode();
+                    }
+                    String state = JSON.readTree(job.body()).get("state").asText();
+                    if (!"RUNNING".equals(state)) {
+                        // a job that failed or was cancelled counts as an error
+                        return "COMPLETED".equals(state) ? 200 : 500;
+                    }
+                }
+            }
+        };
+
+        abstract HttpRequest request(URI base, long[] ids, ThreadLocalRandom random);
+
+        /**
+         * Performs the operation and returns the HTTP status it ended with.
+         */
+        int send(HttpClient client, URI base, long[] ids, ThreadLocalRandom random)
+                throws IOException, InterruptedException {
+            return client.send(request(base, ids, random), HttpResponse.BodyHandlers.discarding()).statusCode();
+        }
+    }
+
+    record Result(String profile, Operation operation, int requests, double throughput, double p50, double p90,
+                  double p99, double p999, double max, int rejected, int errors) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "32"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "30s"));
+        int items = Integer.parseInt(options.getOrDefault("items", "10000"));
+        Map<Operation, Integer> mix = parseMix(options.getOrDefault("mix", "read:70,page:10,create:8,patch:8,batch:3,process:1"));
+
+        Path output = Path.of(options.getOrDefault("output", "target/loadtest-results.csv")).toAbsolutePath();
+        Files.createDirectories(output.getParent());
+
+        List<Result> results = new ArrayList<>();
+        if (options.containsKey("url")) {
+            results.addAll(run("external", URI.create(options.get("url")), users, warmup, duration, items, mix));
+        } else {
+            for (String profile : options.getOrDefault("profiles", "default,throughput,latency").split(",")) {
+                Path logFile = output.resolveSibling("loadtest-" + profile.trim() + ".log");
+                try (LoadTestApplication application = LoadTestApplication.start(profile.trim(), logFile)) {
+                    results.addAll(run(profile.trim(), application.getBaseUri(), users, warmup, duration, items, mix));
+                }
+            }
+        }
+        print(results);
+        writeCsv(results, output);
+        System.out.println("Results written to " + output);
+    }
+
+    private static List<Result> run(String profile, URI base, int users, Duration warmup, Duration duration,
+                                    int items, Map<Operation, Integer> mix) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long[] ids = seed(client, base, items);
+        System.out.printf("%s: %d users, %s warmup, %s measured against %s%n", profile, users, warmup, duration, base);
+
+        Operation[] schedule = mix.entrySet().stream()
+                .flatMap(entry -> IntStream.range(0, entry.getValue()).mapToObj(i -> entry.getKey()))
+                .toArray(Operation[]::new);
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        List<UserStats> stats = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int user = 0; user < users; user++) {
+                UserStats userStats = new UserStats();
+                stats.add(userStats);
+                executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < end) {
+                        Operation operation = schedule[random.nextInt(schedule.length)];
+                        long start = System.nanoTime();
+                        int status;
+                        try {
+                            status = operation.send(client, base, ids, random);
+                        } catch (IOException e) {
+                            status = -1;
+                        }
+                        if (start >= measureFrom) {
+                            userStats.record(operation, status, System.nanoTime() - start);
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        for (Operation operation : mix.keySet()) {
+            results.add(summarize(profile, operation, stats, duration));
+        }
+        return results;
+    }
+
+    /**
+     * Creates the items that READ requests pick from through the batch endpoint, waiting out
+     * admission control when it pushes back, and returns their IDs.
+     */
+    private static long[] seed(HttpClient client, URI base, int items) throws Exception {
+        long[] ids = new long[items];
+        int created = 0;
+        while (created < items) {
+            int size = Math.min(SEED_CHUNK_SIZE, items - created);
+            String body = IntStream.range(created, created + size)
+                    .mapToObj(i -> ITEM_JSON.formatted("item " + i))
+                    .collect(Collectors.joining(",", "[", "]"));
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/api/items/batch"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 429) {
+                long wait = response.headers().firstValueAsLong("Retry-After").orElse(1);
+                Thread.sleep(Duration.ofSeconds(wait));
+                continue;
+            }
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode());
+            }
+            for (JsonNode item : JSON.readTree(response.body())) {
+                ids[created++] = item.get("id").asLong();
+            }
+        }
+        return ids;
+    }
+
+    private static Result summarize(String profile, Operation operation, List<UserStats> stats, Duration duration) {
+        long[] latencies = stats.stream()
+                .flatMapToLong(user -> Arrays.stream(user.latencies.get(operation).toArray()))
+                .sorted()
+                .toArray();
+        int rejected = stats.stream().mapToInt(user -> user.rejected.get(operation)[0]).sum();
+        int errors = stats.stream().mapToInt(user -> user.errors.get(operation)[0]).sum();
+        int requests = latencies.length + rejected + errors;
+        return new Result(profile, operation, requests, latencies.length / (duration.toNanos() / 1e9),
+                percentile(latencies, 0.5), percentile(latencies, 0.9), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), latencies.length == 0 ? 0 : latencies[latencies.length - 1] / 1e6,
+                rejected, errors);
+    }
+
+    // nearest rank, in milliseconds
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1e6;
+    }
+
+    private static void print(List<Result> results) {
+        System.out.printf("%n%-12s %-8s %9s %9s %8s %8s %8s %8s %8s %7s %7s%n", "profile", "op", "requests",
+                "ok/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "429", "errors");
+        for (Result result : results) {
+            System.out.printf(Locale.ROOT, "%-12s %-8s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %7d %7d%n",
+                    result.profile(), result.operation(), result.requests(), result.throughput(), result.p50(),
+                    result.p90(), result.p99(), result.p999(), result.max(), result.rejected(), result.errors());
+        }
+    }
+
+    private static void writeCsv(List<Result> results, Path output) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("profile,operation,requests,throughput,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,rejected,errors");
+        for (Result result : results) {
+            lines.add(String.format(Locale.ROOT, "%s,%s,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d", result.profile(),
+                    result.operation(), result.requests(), result.throughput(), result.p50(), result.p90(),
+                    result.p99(), result.p999(), result.max(), result.rejected(), result.errors()));
+        }
+        Files.write(output, lines);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        return options;
+    }
+
+    private static Duration parseDuration(String value) {
+        return value.startsWith("P") ? Duration.parse(value) : Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+
+    private static Map<Operation, Integer> parseMix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            mix.put(Operation.valueOf(weight[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(weight[1].trim()));
+        }
+        return mix;
+    }
+
+    /**
+     * What one virtual user measured; only that user's thread writes to it.
+     */
+    private static final class UserStats {
+        private final Map<Operation, LongList> latencies = new EnumMap<>(Operation.class);
+        private final Map<Operation, int[]> rejected = new EnumMap<>(Operation.class);
+        private final Map<Operation, int[]> errors = new EnumMap<>(Operation.class);
+
+        private UserStats() {
+            for (Operation operation : Operation.values()) {
+                latencies.put(operation, new LongList());
+                rejected.put(operation, new int[1]);
+                errors.put(operation, new int[1]);
+            }
+        }
+
+        private void record(Operation operation, int status, long nanos) {
+            if (status == 429) {
+                rejected.get(operation)[0]++;
+            } else if (status < 200 || status >= 300) {
+                errors.get(operation)[0]++;
+            } else {
+                latencies.get(operation).add(nanos);
+            }
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.siemens.internship.loadtest;
+
+import com.siemens.internship.InternshipApplication;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the application with one Spring profile in a JVM of its own, so that every profile
+ * starts cold with an empty in-memory database instead of inheriting the JIT-compiled code and
+ * heap of the profile measured before it. Its output goes to a log file next to the results.
+ */
+final class LoadTestApplication implements AutoCloseable {
+
+    static final String DEFAULT_PROFILE = "default";
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private final Process process;
+    private final URI baseUri;
+
+    private LoadTestApplication(Process process, URI baseUri) {
+        this.process = process;
+        this.baseUri = baseUri;
+    }
+
+    static LoadTestApplication start(String profile, Path logFile) throws IOException, InterruptedException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        List<String> command = new ArrayList<>(List.of(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                InternshipApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.main.banner-mode=off",
+                // one log line per request would measure the console rather than the application
+                "--logging.level.root=WARN"));
+        if (!DEFAULT_PROFILE.equals(profile)) {
+            command.add("--spring.profiles.active=" + profile);
+        }
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(logFile.toFile())
+                .start();
+        LoadTestApplication application = new LoadTestApplication(process, URI.create("http://localhost:" + port));
+        try {
+            application.awaitReady();
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            application.close();
+            throw e;
+        }
+        return application;
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(baseUri.resolve("/actuator/health")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with status " + process.exitValue());
+            }
+            try {
+                if (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application did not start within " + STARTUP_TIMEOUT);
+    }
+
+    URI getBaseUri() {
+        return baseUri;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
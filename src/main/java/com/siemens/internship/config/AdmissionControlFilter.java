@@ -0,0 +1,207 @@
+package com.siemens.internship.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for the item API.
+ * Issues:
+ * - a burst of /api/items/process or full list calls could take every Tomcat thread and every
+ *   pooled connection, so that single-item reads starved behind them
+ * Solutions:
+ * - every request is assigned to a bulkhead with its own concurrency limit and token bucket
+ *   (items.admission.[bulkhead].max-concurrent, .rate and .burst), so the heavy groups can only
+ *   ever hold their own share of threads and connections
+ * - requests over a limit are rejected at once with 429 and Retry-After instead of queueing
+ * - items.admission.limit, items.admission.in.flight and items.admission.rejected (tagged with
+ *   the bulkhead and the reason) are published on the metrics endpoint
+ * The change feed is not limited here: its streams are long-lived and capped by
+ * items.feed.max-subscribers.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    private static final String API_PREFIX = "/api/items";
+    private static final long CONCURRENCY_RETRY_AFTER_SECONDS = 1;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Groups of endpoints sharing a budget, with their default limits.
+     */
+    public enum Bulkhead {
+        // single items, pages, search and job status
+        READ(100, 2000, 4000),
+        // single-item writes
+        WRITE(50, 500, 1000),
+        // full list reads and the NDJSON stream
+        LIST(3, 10, 20),
+        // /api/items/batch
+        BATCH(2, 2, 5),
+        // processing runs
+        PROCESS(2, 1, 3);
+
+        private final int maxConcurrent;
+        private final double rate;
+        private final double burst;
+
+        Bulkhead(int maxConcurrent, double rate, double burst) {
+            this.maxConcurrent = maxConcurrent;
+            this.rate = rate;
+            this.burst = burst;
+        }
+
+        String propertyPrefix() {
+            return "items.admission." + name().toLowerCase(Locale.ROOT) + ".";
+        }
+
+        /**
+         * The bulkhead of a request, or null for requests that are not admission controlled.
+         */
+        public static Bulkhead of(HttpServletRequest request) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            if (!path.equals(API_PREFIX) && !path.startsWith(API_PREFIX + "/") || path.startsWith(API_PREFIX + "/changes")) {
+                return null;
+            }
+            boolean get = HttpMethod.GET.matches(request.getMethod());
+            if (path.startsWith(API_PREFIX + "/batch")) {
+                return BATCH;
+            }
+            if (path.startsWith(API_PREFIX + "/process")) {
+                boolean status = path.startsWith(API_PREFIX + "/process/jobs/") || path.startsWith(API_PREFIX + "/process/runs/");
+                return status ? (get ? READ : WRITE) : PROCESS;
+            }
+            if (!get) {
+                return WRITE;
+            }
+            boolean fullList = path.equals(API_PREFIX) && request.getParameter("limit") == null;
+            return fullList || path.equals(API_PREFIX + "/stream") ? LIST : READ;
+        }
+    }
+
+    private final Map<Bulkhead, AdmissionLimiter> limiters = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> rateRejections = new EnumMap<>(Bulkhead.class);
+    private final Map<Bulkhead, Counter> concurrencyRejections = new EnumMap<>(Bulkhead.class);
+
+    @Autowired
+    public AdmissionControlFilter(Environment environment, MeterRegistry meterRegistry) {
+        for (Bulkhead bulkhead : Bulkhead.values()) {
+            String prefix = bulkhead.propertyPrefix();
+            AdmissionLimiter limiter = new AdmissionLimiter(
+                    environment.getProperty(prefix + "max-concurrent", Integer.class, bulkhead.maxConcurrent),
+                    environment.getProperty(prefix + "rate", Double.class, bulkhead.rate),
+                    environment.getProperty(prefix + "burst", Double.class, bulkhead.burst));
+            limiters.put(bulkhead, limiter);
+            log.info("Admission limits for {}: {} concurrent, {} requests/s", bulkhead, limiter.getMaxConcurrent(),
+                    limiter.getRatePerSecond());
+
+            String tag = bulkhead.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("items.admission.limit", limiter, AdmissionLimiter::getMaxConcurrent)
+                    .description("Requests a bulkhead admits at once")
+                    .tag("bulkhead", tag)
+                    .register(meterRegistry);
+            Gauge.builder("items.admission.in.flight", limiter, AdmissionLimiter::getInFlight)
+                    .description("Requests currently admitted by a bulkhead")
+                    .tag("bulkhead", tag)
+                    .register(meterRegistry);
+            rateRejections.put(bulkhead, rejectedCounter(meterRegistry, tag, "rate"));
+            concurrencyRejections.put(bulkhead, rejectedCounter(meterRegistry, tag, "concurrency"));
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String bulkhead, String reason) {
+        return Counter.builder("items.admission.rejected")
+                .description("Requests rejected with 429 by admission control")
+                .tag("bulkhead", bulkhead)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = Bulkhead.of(request);
+        if (bulkhead == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        AdmissionLimiter limiter = limiters.get(bulkhead);
+        if (!limiter.tryEnter()) {
+            concurrencyRejections.get(bulkhead).increment();
+            reject(response, CONCURRENCY_RETRY_AFTER_SECONDS);
+            return;
+        }
+        boolean handedOver = false;
+        try {
+            long waitNanos = limiter.tryTakeToken();
+            if (waitNanos > 0) {
+                rateRejections.get(bulkhead).increment();
+                reject(response, (waitNanos + NANOS_PER_SECOND - 1) / NANOS_PER_SECOND);
+                return;
+            }
+            chain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // streaming responses keep their permit until the async request completes
+                request.getAsyncContext().addListener(new ReleaseListener(limiter));
+                handedOver = true;
+            }
+        } finally {
+            if (!handedOver) {
+                limiter.release();
+            }
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds) {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+
+    private static final class ReleaseListener implements AsyncListener {
+        private final AdmissionLimiter limiter;
+
+        private ReleaseListener(AdmissionLimiter limiter) {
+            this.limiter = limiter;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            limiter.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
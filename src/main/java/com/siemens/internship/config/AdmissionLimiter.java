@@ -0,0 +1,82 @@
+package com.siemens.internship.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Admission budget of one group of endpoints: a semaphore of maxConcurrent permits (the
+ * bulkhead; every admitted request holds a Tomcat thread and usually a pooled connection) and a
+ * token bucket refilled at ratePerSecond up to burst tokens. A rate of zero or less disables the
+ * bucket. Neither check ever waits, so a rejected request costs next to nothing.
+ */
+public class AdmissionLimiter {
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxConcurrent;
+    private final double ratePerSecond;
+    private final double burst;
+    private final Semaphore permits;
+    private final LongSupplier nanoClock;
+    // guarded by this
+    private double tokens;
+    private long refilledAt;
+
+    public AdmissionLimiter(int maxConcurrent, double ratePerSecond, double burst) {
+        this(maxConcurrent, ratePerSecond, burst, System::nanoTime);
+    }
+
+    AdmissionLimiter(int maxConcurrent, double ratePerSecond, double burst, LongSupplier nanoClock) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("maxConcurrent must be positive, was " + maxConcurrent);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.permits = new Semaphore(maxConcurrent);
+        this.nanoClock = nanoClock;
+        this.tokens = this.burst;
+        this.refilledAt = nanoClock.getAsLong();
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getInFlight() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    /**
+     * Takes a concurrency permit if one is free; it has to be handed back with release().
+     */
+    public boolean tryEnter() {
+        return permits.tryAcquire();
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Takes a token from the bucket. Returns 0 when one was available, otherwise the number of
+     * nanoseconds until the next one will be.
+     */
+    public synchronized long tryTakeToken() {
+        if (ratePerSecond <= 0) {
+            return 0;
+        }
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / NANOS_PER_SECOND);
+        refilledAt = now;
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * NANOS_PER_SECOND / ratePerSecond);
+    }
+}
@@ -1,42 +1,166 @@
-package com.siemens.internship.config;
-
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.TaskExecutor;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-
-/**
- * In order to address asynchronous processes I decided to create a configuration class.
- * Issues:
- * - the thread pool is hardcoded in the service class which reduces reusability
- * - it is possible that the pool still runs even though the application stops, which
- *   leads to resource leakage
- * Solutions:
- * - define the executor as a Bean in the configuration class and inject it wherever needed
- */
-
-@Configuration
-@EnableAsync
-@Slf4j
-public class AsyncConfig {
-
-    @Bean(name = "taskExecutor")
-    public TaskExecutor taskExecutor() {
-        log.info("Initializing TaskExecutor bean with thread pool configuration");
-
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(10);
-        executor.setMaxPoolSize(20);
-        executor.setQueueCapacity(500);
-        executor.setThreadNamePrefix("Async-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
-        return executor;
-    }
-
-
-}
+package com.siemens.internship.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+
+/**
+ * In order to address asynchronous processes I decided to create a configuration class.
+ * Issues:
+ * - the thread pool is hardcoded in the service class which reduces reusability
+ * - it is possible that the pool still runs even though the application stops, which
+ *   leads to resource leakage
+ * - a bounded pool rejects tasks once threads and queue are exhausted (about 520 items
+ *   for processItemsAsync), and blocking JDBC calls hold on to scarce platform threads
+ * Solutions:
+ * - define the executor as a Bean in the configuration class and inject it wherever needed
+ * - items.executor.mode=virtual runs every task on its own virtual thread, so submissions are
+ *   never rejected; a semaphore caps how many tasks run at once, and tasks waiting for a permit
+ *   only park a cheap virtual thread. The cap (items.executor.max-concurrency) is set below the
+ *   connection pool size, so background processing can never take every connection away from
+ *   request threads
+ * - both modes publish items.executor.active, items.executor.queued and
+ *   items.executor.rejected so that saturation is visible on the metrics endpoint
+ * - CPU-bound processing stages get a separate fork-join pool (cpuExecutor) with one thread per
+ *   core, so they neither wait for permits meant for blocking work nor oversubscribe the CPU
+ */
+
+@Configuration
+@EnableAsync
+@EnableScheduling
+@Slf4j
+public class AsyncConfig {
+
+    public enum ExecutorMode {
+        PLATFORM,
+        VIRTUAL
+    }
+
+    @Bean(name = "taskExecutor")
+    public TaskExecutor taskExecutor(@Value("${items.executor.mode:platform}") ExecutorMode mode,
+                                     @Value("${items.executor.core-pool-size:10}") int corePoolSize,
+                                     @Value("${items.executor.max-pool-size:20}") int maxPoolSize,
+                                     @Value("${items.executor.queue-capacity:500}") int queueCapacity,
+                                     @Value("${items.executor.max-concurrency:6}") int maxConcurrency,
+                                     MeterRegistry meterRegistry) {
+        if (mode == ExecutorMode.VIRTUAL) {
+            return virtualThreadExecutor(maxConcurrency, meterRegistry);
+        }
+        log.info("Initializing TaskExecutor bean with thread pool configuration");
+
+        Counter rejected = rejectedCounter(meterRegistry);
+        RejectedExecutionHandler abort = new ThreadPoolExecutor.AbortPolicy();
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("Async-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.setRejectedExecutionHandler((task, pool) -> {
+            rejected.increment();
+            abort.rejectedExecution(task, pool);
+        });
+        executor.initialize();
+
+        Gauge.builder("items.executor.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("Tasks currently running on the taskExecutor")
+                .register(meterRegistry);
+        Gauge.builder("items.executor.queued", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("Tasks waiting for a taskExecutor thread")
+                .register(meterRegistry);
+        return executor;
+    }
+
+    /**
+     * Runs the per-subscriber senders of the change feed. Each one blocks on its client's socket
+     * rather than on the database, so they get unbounded virtual threads of their own and a slow
+     * client can never take a permit or pool thread away from item processing.
+     */
+    @Bean(name = "feedExecutor")
+    public TaskExecutor feedExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Feed-");
+        executor.setVirtualThreads(true);
+        return executor;
+    }
+
+    /**
+     * Runs CPU-bound item processing stages. Its parallelism (items.executor.cpu-parallelism,
+     * by default the number of cores) bounds them, so they never take taskExecutor permits and
+     * never run more threads than there are cores; async mode keeps the submitted tasks in FIFO
+     * order.
+     */
+    @Bean(name = "cpuExecutor", destroyMethod = "shutdown")
+    public ForkJoinPool cpuExecutor(@Value("${items.executor.cpu-parallelism:0}") int parallelism,
+                                    MeterRegistry meterRegistry) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        log.info("Initializing cpuExecutor fork-join pool with parallelism {}", threads);
+
+        ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory = pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("Cpu-" + thread.getPoolIndex());
+            return thread;
+        };
+        ForkJoinPool pool = new ForkJoinPool(threads, threadFactory, null, true);
+        Gauge.builder("items.executor.cpu.active", pool, ForkJoinPool::getActiveThreadCount)
+                .description("Tasks currently running on the cpuExecutor")
+                .register(meterRegistry);
+        Gauge.builder("items.executor.cpu.queued", pool, p -> p.getQueuedSubmissionCount() + p.getQueuedTaskCount())
+                .description("Tasks waiting for a cpuExecutor thread")
+                .register(meterRegistry);
+        return pool;
+    }
+
+    private static SimpleAsyncTaskExecutor virtualThreadExecutor(int maxConcurrency, MeterRegistry meterRegistry) {
+        log.info("Initializing TaskExecutor bean with virtual threads, at most {} running at once", maxConcurrency);
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        rejectedCounter(meterRegistry);
+        Gauge.builder("items.executor.active", permits, p -> maxConcurrency - p.availablePermits())
+                .description("Tasks currently running on the taskExecutor")
+                .register(meterRegistry);
+        Gauge.builder("items.executor.queued", permits, Semaphore::getQueueLength)
+                .description("Tasks waiting for a taskExecutor permit")
+                .register(meterRegistry);
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("Async-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(task -> () -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for an execution permit", e);
+            }
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        });
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry) {
+        return Counter.builder("items.executor.rejected")
+                .description("Tasks rejected by the taskExecutor")
+                .register(meterRegistry);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.siemens.internship.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siemens.internship.model.Item;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Bounded in-process cache for single-item reads.
+ * Items are evicted once the cache exceeds its maximum size or an entry outlives its
+ * time-to-live, so stale entries written by other processes are bounded in time as well.
+ * Statistics are recorded so that hit, miss and eviction counts can be exposed, both through the
+ * API and as cache.* meters tagged cache=items.
+ */
+@Configuration
+@Slf4j
+public class CacheConfig {
+
+    @Bean(name = "itemCache")
+    public Cache<Long, Item> itemCache(@Value("${items.cache.maximum-size:10000}") long maximumSize,
+                                       @Value("${items.cache.expire-after-write:10m}") Duration expireAfterWrite,
+                                       MeterRegistry meterRegistry) {
+        log.info("Initializing item cache with maximum size {} and expiry {}", maximumSize, expireAfterWrite);
+
+        Cache<Long, Item> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "items");
+    }
+}
@@ -0,0 +1,82 @@
+package com.siemens.internship.config;
+
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Aggregated logging for hot paths: instead of a line per call, callers count outcomes and at
+ * most one INFO line per interval reports how often each occurred since the previous one, e.g.
+ * "Item lookups in the last PT10.002S: {found=1200, missing=3}". Counting is a LongAdder increment,
+ * so concurrent callers neither allocate nor contend on a lock; the line itself is written by
+ * whichever caller first notices that the interval is over, so a quiet period is reported with
+ * the next counted outcome.
+ * Lowering the logger to WARN silences the summary, and its per-call DEBUG lines remain
+ * available, so a hot path can be inspected at runtime through /actuator/loggers.
+ */
+public final class SampledLog {
+    private final Logger logger;
+    private final String description;
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final AtomicLong nextReportAt;
+
+    public SampledLog(Logger logger, String description, Duration interval) {
+        this(logger, description, interval, System::nanoTime);
+    }
+
+    /**
+     * @param nanoClock the time source, in nanoseconds like System.nanoTime()
+     */
+    public SampledLog(Logger logger, String description, Duration interval, LongSupplier nanoClock) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Summary interval must be positive, was " + interval);
+        }
+        this.logger = logger;
+        this.description = description;
+        this.intervalNanos = interval.toNanos();
+        this.nanoClock = nanoClock;
+        this.nextReportAt = new AtomicLong(nanoClock.getAsLong() + intervalNanos);
+    }
+
+    public Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Counts one occurrence of the outcome and writes the summary if the interval is over.
+     */
+    public void count(String outcome) {
+        LongAdder count = counts.get(outcome);
+        if (count == null) {
+            count = counts.computeIfAbsent(outcome, key -> new LongAdder());
+        }
+        count.increment();
+        long now = nanoClock.getAsLong();
+        long reportAt = nextReportAt.get();
+        if (now - reportAt >= 0 && nextReportAt.compareAndSet(reportAt, now + intervalNanos)) {
+            report(Duration.ofNanos(now - reportAt + intervalNanos).truncatedTo(ChronoUnit.MILLIS));
+        }
+    }
+
+    private void report(Duration elapsed) {
+        Map<String, Long> summary = new TreeMap<>();
+        counts.forEach((outcome, count) -> {
+            long value = count.sumThenReset();
+            if (value > 0) {
+                summary.put(outcome, value);
+            }
+        });
+        if (!summary.isEmpty() && logger.isInfoEnabled()) {
+            logger.info("{} in the last {}: {}", description, elapsed, summary);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.service.ItemBatchService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Multi-item variants of the create, update and delete endpoints.
+ * The whole request is validated in one pass before anything is persisted: a single invalid
+ * item, a missing or duplicated ID, or an oversized request rejects the batch with 400.
+ * Updates that would make an illegal status transition reject the batch with 409.
+ */
+@RestController
+@RequestMapping("/api/items/batch")
+@Slf4j
+public class ItemBatchController {
+
+    private final ItemBatchService itemBatchService;
+    private final Validator validator;
+    private final int maxBatchSize;
+
+    @Autowired
+    public ItemBatchController(ItemBatchService itemBatchService, Validator validator,
+                               @Value("${items.batch.max-size:50000}") int maxBatchSize) {
+        this.itemBatchService = itemBatchService;
+        this.validator = validator;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @PostMapping
+    public ResponseEntity<List<Item>> createItems(@RequestBody List<Item> items) {
+        if (!isValidBatch(items, false)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<Item> savedItems = itemBatchService.createAll(items);
+        log.info("Batch of {} items created successfully.", savedItems.size());
+        return new ResponseEntity<>(savedItems, HttpStatus.CREATED);
+    }
+
+    @PutMapping
+    public ResponseEntity<List<Item>> updateItems(@RequestBody List<Item> items) {
+        if (!isValidBatch(items, true)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            List<Item> updatedItems = itemBatchService.updateAll(items);
+            log.info("Batch of {} items updated successfully.", updatedItems.size());
+            return new ResponseEntity<>(updatedItems, HttpStatus.OK);
+        } catch (NoSuchElementException e) {
+            log.warn("Batch update rejected: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (IllegalStateException e) {
+            log.warn("Batch update rejected: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> deleteItems(@RequestBody List<Long> ids) {
+        if (ids == null || ids.isEmpty() || ids.size() > maxBatchSize || !hasUniqueIds(ids)) {
+            log.warn("Batch delete rejected: empty, oversized or containing missing/duplicate IDs.");
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            itemBatchService.deleteAll(ids);
+            log.info("Batch of {} items deleted successfully.", ids.size());
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (NoSuchElementException e) {
+            log.warn("Batch delete rejected: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    private boolean isValidBatch(List<Item> items, boolean requireIds) {
+        if (items == null || items.isEmpty() || items.size() > maxBatchSize || items.stream().anyMatch(Objects::isNull)) {
+            log.warn("Batch rejected: empty, oversized or containing null items.");
+            return false;
+        }
+        if (requireIds && !hasUniqueIds(items.stream().map(Item::getId).toList())) {
+            log.warn("Batch rejected: missing or duplicate item IDs.");
+            return false;
+        }
+        for (int i = 0; i < items.size(); i++) {
+            Set<ConstraintViolation<Item>> violations = validator.validate(items.get(i));
+            if (!violations.isEmpty()) {
+                log.warn("Batch rejected: item at index {} is invalid: {}", i, violations.iterator().next().getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasUniqueIds(List<Long> ids) {
+        Set<Long> seen = new HashSet<>(ids.size() * 2);
+        return ids.stream().allMatch(id -> Objects.nonNull(id) && seen.add(id));
+    }
+}
@@ -0,0 +1,42 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.service.ItemChangeFeed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Server-sent events for every item write: GET /api/items/changes streams "created", "updated",
+ * "processed" and "deleted" events whose data is {"type": ..., "ids": [...]}.
+ * Browsers' EventSource reconnects with the Last-Event-ID header by itself and continues where
+ * it stopped; a "reset" event means changes were missed and the consumer has to reload.
+ */
+@RestController
+@RequestMapping("/api/items/changes")
+@Slf4j
+public class ItemChangeFeedController {
+
+    private final ItemChangeFeed changeFeed;
+
+    @Autowired
+    public ItemChangeFeedController(ItemChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return new ResponseEntity<>(changeFeed.subscribe(lastEventId), HttpStatus.OK);
+        } catch (IllegalStateException e) {
+            log.warn("Rejected change feed subscription: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
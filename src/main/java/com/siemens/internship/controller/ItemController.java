@@ -1,18 +1,36 @@
 package com.siemens.internship.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemCacheStats;
+import com.siemens.internship.model.ItemField;
+import com.siemens.internship.model.ItemFieldsPage;
+import com.siemens.internship.model.ItemPage;
+import com.siemens.internship.model.ItemStatus;
 import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ItemTableVersion;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 
 /**
@@ -35,20 +53,128 @@ import java.util.concurrent.CompletableFuture;
 @Slf4j
 public class ItemController {
 
+    private static final int STREAM_FLUSH_INTERVAL = 500;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final ItemService itemService;
+    private final ObjectMapper objectMapper;
+    private final ItemTableVersion tableVersion;
 
     @Autowired
-    public ItemController(ItemService itemService) {
+    public ItemController(ItemService itemService, ObjectMapper objectMapper, ItemTableVersion tableVersion) {
         this.itemService = itemService;
+        this.objectMapper = objectMapper;
+        this.tableVersion = tableVersion;
     }
 
+    /**
+     * All list endpoints answer If-None-Match and If-Modified-Since with 304 from the table
+     * version alone, before any item is read.
+     */
     @GetMapping
-    public ResponseEntity<List<Item>> getAllItems() {
+    public ResponseEntity<List<Item>> getAllItems(WebRequest request) {
+        if (isListNotModified(request)) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
         List<Item> items = itemService.findAll();
         log.info("Found {} items.", items.size());
         return new ResponseEntity<>(items, HttpStatus.OK);
     }
 
+    /**
+     * Cursor-based pagination: GET /api/items?limit=N[&after=token], where token is the
+     * nextToken of the previous page. An optional status parameter restricts the pages to items
+     * with that status.
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<ItemPage> getItemsPage(@RequestParam(required = false) String after,
+                                                 @RequestParam(required = false) ItemStatus status,
+                                                 @RequestParam int limit, WebRequest request) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.warn("Rejected page request with limit {}.", limit);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (isListNotModified(request)) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
+        try {
+            return new ResponseEntity<>(itemService.findPage(after, limit, status), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected page request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Sparse fieldsets: GET /api/items?fields=name,status returns only the requested properties
+     * (plus the ID) of every item, read as column values without loading entities.
+     */
+    @GetMapping(params = {"fields", "!limit"})
+    public ResponseEntity<List<Map<String, Object>>> getAllItemFields(@RequestParam String fields, WebRequest request) {
+        try {
+            Set<ItemField> itemFields = ItemField.parse(fields);
+            if (isListNotModified(request)) {
+                return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+            }
+            List<Map<String, Object>> items = itemService.findAllFields(itemFields);
+            log.info("Found {} items.", items.size());
+            return new ResponseEntity<>(items, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected fieldset request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Paginated form of getAllItemFields(), with the same parameters as getItemsPage().
+     */
+    @GetMapping(params = {"fields", "limit"})
+    public ResponseEntity<ItemFieldsPage> getItemFieldsPage(@RequestParam(required = false) String after,
+                                                            @RequestParam(required = false) ItemStatus status,
+                                                            @RequestParam int limit,
+                                                            @RequestParam String fields, WebRequest request) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE) {
+            log.warn("Rejected page request with limit {}.", limit);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            Set<ItemField> itemFields = ItemField.parse(fields);
+            if (isListNotModified(request)) {
+                return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+            }
+            return new ResponseEntity<>(itemService.findFieldsPage(after, limit, status, itemFields), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected page request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Streams all items as newline-delimited JSON while they are read from the database cursor,
+     * instead of materializing the whole table as getAllItems() does.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllItems() {
+        ObjectWriter writer = objectMapper.writerFor(Item.class);
+        StreamingResponseBody body = outputStream -> {
+            long[] written = {0};
+            long count = itemService.streamAll(item -> {
+                try {
+                    outputStream.write(writer.writeValueAsBytes(item));
+                    outputStream.write('\n');
+                    if (++written[0] % STREAM_FLUSH_INTERVAL == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            outputStream.flush();
+            log.info("Streamed {} items.", count);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
     @PostMapping
     public ResponseEntity<Item> createItem(@Valid @RequestBody Item item, BindingResult result) {
         if (result.hasErrors()) {
@@ -60,23 +186,109 @@ public class ItemController {
         return new ResponseEntity<>(savedItem, HttpStatus.CREATED);
     }
 
+    /**
+     * With If-None-Match, the item's version is looked up first (from the cache or as a single
+     * column) and a matching ETag is answered with 304 without loading the item.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<Item> getItemById(@PathVariable Long id) {
+    public ResponseEntity<Item> getItemById(@PathVariable Long id, WebRequest request) {
+        boolean conditional = request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+        if (conditional) {
+            Optional<Long> version = itemService.findVersion(id);
+            if (version.isPresent() && request.checkNotModified(eTag(version.get()))) {
+                return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+            }
+        }
+        // a conditional request already got its ETag header from checkNotModified
         return itemService.findById(id)
-                .map(item -> new ResponseEntity<>(item, HttpStatus.OK))
+                .map(item -> conditional ? new ResponseEntity<>(item, HttpStatus.OK) : okWithETag(item))
                 .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Replaces the item with a single conditional UPDATE; there is no read before the write.
+     * With If-Match: "version" (the ETag of a previous response) a stale version answers 412.
+     * Without If-Match (or with *) the current version is used, and a concurrent write that
+     * slips in between answers 409 instead of being overwritten. An illegal status transition
+     * also answers 409. The response carries the new ETag.
+     */
     @PutMapping("/{id}")
-    public ResponseEntity<Item> updateItem(@PathVariable Long id, @RequestBody Item item) {
-        Optional<Item> existingItem = itemService.findById(id);
-        if (existingItem.isPresent()) {
-            item.setId(id);
-            Item updatedItem = itemService.save(item);
+    public ResponseEntity<Item> updateItem(@PathVariable Long id, @Valid @RequestBody Item item, BindingResult result,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (result.hasErrors()) {
+            log.error("Validation failed for item: {}", item);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        Long expectedVersion = null;
+        if (ifMatch != null && !ifMatch.trim().equals("*")) {
+            expectedVersion = parseETag(ifMatch);
+            if (expectedVersion == null) {
+                log.warn("Update of item with ID: {} rejected: unusable If-Match {}", id, ifMatch);
+                return new ResponseEntity<>(HttpStatus.PRECONDITION_FAILED);
+            }
+        }
+        try {
+            Item updatedItem = itemService.update(id, item, expectedVersion);
             log.info("Item with ID: {} updated successfully.", id);
-            return new ResponseEntity<>(updatedItem, HttpStatus.OK);
-        } else {
+            return okWithETag(updatedItem);
+        } catch (NoSuchElementException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Update of item with ID: {} rejected: {}", id, e.getMessage());
+            return new ResponseEntity<>(expectedVersion != null ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT);
+        } catch (IllegalStateException e) {
+            log.warn("Update of item with ID: {} rejected: {}", id, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * Moves an item to the status in the body, e.g. "PROCESSED". Answers 202 when the change
+     * was buffered by write-behind and 204 when it was written; 404 for an unknown item and 409
+     * for an illegal transition or a concurrent change.
+     */
+    @PatchMapping("/{id}/status")
+    public ResponseEntity<Void> updateItemStatus(@PathVariable Long id, @RequestBody ItemStatus status) {
+        try {
+            boolean buffered = itemService.updateStatus(id, status);
+            return new ResponseEntity<>(buffered ? HttpStatus.ACCEPTED : HttpStatus.NO_CONTENT);
+        } catch (NoSuchElementException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            log.warn("Status update of item with ID: {} rejected: {}", id, e.getMessage());
+            return new ResponseEntity<>(HttpStatus.CONFLICT);
+        }
+    }
+
+    private boolean isListNotModified(WebRequest request) {
+        return request.checkNotModified(tableVersion.eTag(), tableVersion.lastModified());
+    }
+
+    private static ResponseEntity<Item> okWithETag(Item item) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (item.getVersion() != null) {
+            response.eTag(eTag(item.getVersion()));
+        }
+        return response.body(item);
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Returns the version in a strong ETag such as "3", or null if the value is not one of ours
+     * (weak ETags never match for If-Match).
+     */
+    private static Long parseETag(String eTag) {
+        String value = eTag.trim();
+        if (value.length() < 3 || !value.startsWith("\"") || !value.endsWith("\"")) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.substring(1, value.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
         }
     }
 
@@ -95,6 +307,11 @@ public class ItemController {
         }
     }
 
+    @GetMapping("/cache/stats")
+    public ResponseEntity<ItemCacheStats> getCacheStats() {
+        return new ResponseEntity<>(itemService.cacheStats(), HttpStatus.OK);
+    }
+
     @GetMapping("/process")
     public ResponseEntity<List<Item>> processItems() {
         log.info("Processing items asynchronously.");
@@ -113,4 +330,35 @@ public class ItemController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    /**
+     * Processes items in bulk and streams back the IDs of the processed items as newline-delimited
+     * JSON, one chunk at a time as each chunk commits. An empty body means nothing was left to
+     * process. If the client goes away, the run stops after the current chunk.
+     */
+    @GetMapping(value = "/process/bulk", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> processItemsInBulk(@RequestParam(defaultValue = "1000") int chunkSize) {
+        if (chunkSize <= 0) {
+            log.warn("Rejected bulk processing request with chunk size {}.", chunkSize);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        log.info("Processing items in bulk with chunk size {}.", chunkSize);
+        StreamingResponseBody body = outputStream -> {
+            long processed = itemService.processItemsInBulk(chunkSize, chunk -> {
+                try {
+                    for (Long id : chunk) {
+                        outputStream.write(id.toString().getBytes(StandardCharsets.US_ASCII));
+                        outputStream.write('\n');
+                    }
+                    outputStream.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            if (processed == 0) {
+                log.warn("No items were processed.");
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 }
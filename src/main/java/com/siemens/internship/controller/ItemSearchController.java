@@ -0,0 +1,47 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.ItemSearchResults;
+import com.siemens.internship.service.ItemSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Ranked search over item names and descriptions: GET /api/items/search?q=...[&page=0&size=20].
+ * Every word of q must match a word of the name or description, or be a prefix of one.
+ */
+@RestController
+@RequestMapping("/api/items/search")
+@Slf4j
+public class ItemSearchController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final ItemSearchService itemSearchService;
+
+    @Autowired
+    public ItemSearchController(ItemSearchService itemSearchService) {
+        this.itemSearchService = itemSearchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<ItemSearchResults> search(@RequestParam String q,
+                                                    @RequestParam(defaultValue = "0") int page,
+                                                    @RequestParam(defaultValue = "20") int size) {
+        if (page < 0 || size <= 0 || size > MAX_PAGE_SIZE) {
+            log.warn("Rejected search request with page {} and size {}.", page, size);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        try {
+            return new ResponseEntity<>(itemSearchService.search(q, page, size), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected search request: {}", e.getMessage());
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+    }
+}
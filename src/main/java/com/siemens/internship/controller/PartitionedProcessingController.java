@@ -0,0 +1,44 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.PartitionedRunStatus;
+import com.siemens.internship.service.PartitionedProcessingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * Processing runs partitioned across every node sharing the database.
+ * POST splits the items into chunks and returns 202 with the run's location; the nodes then
+ * claim and process the chunks on their own, and GET reports the progress of the whole run.
+ */
+@RestController
+@RequestMapping("/api/items/process/runs")
+@Slf4j
+public class PartitionedProcessingController {
+
+    private final PartitionedProcessingService partitionedProcessingService;
+
+    @Autowired
+    public PartitionedProcessingController(PartitionedProcessingService partitionedProcessingService) {
+        this.partitionedProcessingService = partitionedProcessingService;
+    }
+
+    @PostMapping
+    public ResponseEntity<PartitionedRunStatus> startRun() {
+        PartitionedRunStatus run = partitionedProcessingService.startRun();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/process/runs/" + run.getRunId()))
+                .body(run);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PartitionedRunStatus> getRun(@PathVariable String id) {
+        return partitionedProcessingService.findRun(id)
+                .map(run -> new ResponseEntity<>(run, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
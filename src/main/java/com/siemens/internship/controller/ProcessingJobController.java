@@ -0,0 +1,79 @@
+package com.siemens.internship.controller;
+
+import com.siemens.internship.model.ProcessingJobResults;
+import com.siemens.internship.model.ProcessingJobStatus;
+import com.siemens.internship.model.ProcessingMode;
+import com.siemens.internship.service.ProcessingJob;
+import com.siemens.internship.service.ProcessingJobService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Job-based alternative to the blocking GET /api/items/process endpoint.
+ * POST starts (or joins) a run and returns immediately with 202 and the job's location;
+ * clients then poll the job, page through its results (keyset pages: pass the nextAfter of one
+ * page as after of the next) or cancel it.
+ * POST ?mode=INCREMENTAL only visits items that have not been processed yet, ?mode=RETRY only
+ * the items whose processing failed earlier.
+ */
+@RestController
+@RequestMapping("/api/items/process")
+@Slf4j
+public class ProcessingJobController {
+
+    private static final int MAX_RESULTS_PAGE_SIZE = 1000;
+
+    private final ProcessingJobService processingJobService;
+
+    @Autowired
+    public ProcessingJobController(ProcessingJobService processingJobService) {
+        this.processingJobService = processingJobService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ProcessingJobStatus> startJob(@RequestParam(defaultValue = "FULL") ProcessingMode mode) {
+        ProcessingJob job = processingJobService.startOrJoin(mode);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/items/process/jobs/" + job.getId()))
+                .body(job.toStatus());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ProcessingJobStatus> getJob(@PathVariable String id) {
+        return processingJobService.findJob(id)
+                .map(job -> new ResponseEntity<>(job.toStatus(), HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @DeleteMapping("/jobs/{id}")
+    public ResponseEntity<ProcessingJobStatus> cancelJob(@PathVariable String id) {
+        return processingJobService.cancel(id)
+                .map(job -> new ResponseEntity<>(job.toStatus(), HttpStatus.ACCEPTED))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @GetMapping("/jobs/{id}/results")
+    public ResponseEntity<ProcessingJobResults> getJobResults(@PathVariable String id,
+                                                              @RequestParam(required = false) Long after,
+                                                              @RequestParam(defaultValue = "100") int size) {
+        if (size <= 0 || size > MAX_RESULTS_PAGE_SIZE) {
+            log.warn("Rejected results request for job {} with size {}.", id, size);
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        return processingJobService.findJob(id)
+                .map(job -> {
+                    List<Long> ids = processingJobService.findProcessedIds(job,
+                            after != null ? after : Long.MIN_VALUE, size);
+                    Long nextAfter = ids.size() == size ? ids.get(ids.size() - 1) : null;
+                    return new ResponseEntity<>(new ProcessingJobResults(id, size, job.processedCount(), ids,
+                            nextAfter), HttpStatus.OK);
+                })
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
@@ -4,9 +4,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -22,16 +28,26 @@ import lombok.Setter;
  * - regex validation for email through @Email annotation,
  *   which checks the field's value against the pattern
  *   ^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\.[a-zA-Z]{2,}$
+ * - IDs come from a pooled sequence that hands out 50 values per round trip, so inserts
+ *   need no extra query per row and can be grouped into JDBC batches
+ * - status is indexed together with the ID, so status-filtered keyset pages are an index range
+ *   scan instead of a full table scan
+ * - status is a bounded ItemStatus stored as a small integer code rather than free-form text;
+ *   JSON keeps the state names, and unknown names are rejected while the request is parsed
+ * - concurrent updates silently overwrote each other; the version column lets updates be
+ *   conditional (optimistic locking) and doubles as the ETag. Clients can read it but never set it
  */
 
 @Entity
+@Table(indexes = @Index(name = "idx_item_status_id", columnList = "status, id"))
 @Getter
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_seq")
+    @SequenceGenerator(name = "item_seq", sequenceName = "item_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Name cannot be blank")
@@ -41,9 +57,13 @@ public class Item {
     @Size(max = 200, message = "Description can have a maximum of 200 characters")
     private String description;
 
-    @NotBlank(message = "Status cannot be blank")
-    private String status;
+    @NotNull(message = "Status cannot be null")
+    private ItemStatus status;
 
     @Email(regexp = "^[a-zA-Z0-9._%+-]+@[a-zA-Z0-9.-]+\\.[a-zA-Z]{2,}$", message = "Invalid email format")
     private String email;
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
 }
\ No newline at end of file
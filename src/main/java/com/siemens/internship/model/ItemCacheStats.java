@@ -0,0 +1,17 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Snapshot of the item cache counters since application start.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemCacheStats {
+    private long size;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private double hitRate;
+}
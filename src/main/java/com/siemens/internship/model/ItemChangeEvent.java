@@ -0,0 +1,27 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published by the services after a write to the item table has been committed.
+ * items holds the written state when the writer has it; set-based writes that never load
+ * entities (bulk processing, deletes) only carry the affected IDs.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemChangeEvent {
+    private ItemChangeType type;
+    private List<Long> ids;
+    private List<Item> items;
+
+    public static ItemChangeEvent of(ItemChangeType type, List<Item> items) {
+        return new ItemChangeEvent(type, items.stream().map(Item::getId).toList(), List.copyOf(items));
+    }
+
+    public static ItemChangeEvent ofIds(ItemChangeType type, List<Long> ids) {
+        return new ItemChangeEvent(type, List.copyOf(ids), List.of());
+    }
+}
@@ -0,0 +1,12 @@
+package com.siemens.internship.model;
+
+/**
+ * Kind of write described by an ItemChangeEvent.
+ */
+public enum ItemChangeType {
+    CREATED,
+    UPDATED,
+    // marked as processed; only the status and version changed
+    PROCESSED,
+    DELETED
+}
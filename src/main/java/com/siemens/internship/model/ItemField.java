@@ -0,0 +1,50 @@
+package com.siemens.internship.model;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Item properties that can be requested as a sparse fieldset (GET /api/items?fields=...).
+ * Constants are declared in the order the fields appear in responses.
+ */
+public enum ItemField {
+    ID,
+    NAME,
+    DESCRIPTION,
+    STATUS,
+    EMAIL;
+
+    /**
+     * Name of the entity attribute, which is also the JSON property name.
+     */
+    public String property() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses a comma-separated list of property names, e.g. "name,status".
+     * The ID is always part of the result, so rows can be told apart and paged.
+     * Throws IllegalArgumentException for unknown names and for lists without any name, e.g. ",".
+     */
+    public static Set<ItemField> parse(String fields) {
+        Set<ItemField> parsed = EnumSet.of(ID);
+        boolean named = false;
+        for (String field : fields.split(",")) {
+            String property = field.trim();
+            if (property.isEmpty()) {
+                continue;
+            }
+            try {
+                parsed.add(valueOf(property.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown item field: " + property);
+            }
+            named = true;
+        }
+        if (!named) {
+            throw new IllegalArgumentException("No item fields requested");
+        }
+        return parsed;
+    }
+}
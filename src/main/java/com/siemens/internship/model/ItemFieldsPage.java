@@ -0,0 +1,18 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of a keyset-paginated listing restricted to a sparse fieldset; each row only holds
+ * the requested properties. nextToken works as in ItemPage.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemFieldsPage {
+    private List<Map<String, Object>> items;
+    private String nextToken;
+}
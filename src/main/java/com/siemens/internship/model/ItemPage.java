@@ -0,0 +1,18 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated item listing.
+ * nextToken is an opaque continuation token to pass as the "after" parameter of the
+ * next request; it is null on the last page.
+ */
+@Getter
+@AllArgsConstructor
+public class ItemPage {
+    private List<Item> items;
+    private String nextToken;
+}
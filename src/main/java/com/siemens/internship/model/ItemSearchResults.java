@@ -0,0 +1,22 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of search matches, best match first.
+ * total is exact while totalExact is true, otherwise it is a lower bound (counting stops after
+ * 1000 matches to keep unselective queries cheap).
+ */
+@Getter
+@AllArgsConstructor
+public class ItemSearchResults {
+    private String query;
+    private int page;
+    private int size;
+    private long total;
+    private boolean totalExact;
+    private List<Item> items;
+}
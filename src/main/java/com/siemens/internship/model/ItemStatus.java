@@ -0,0 +1,57 @@
+package com.siemens.internship.model;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of an item.
+ * NEW items are picked up by processing and become PROCESSED; a processed item can be reopened
+ * as NEW. Either can be ARCHIVED, which is final. Staying in the same state is always allowed,
+ * so updates that only touch other fields and repeated processing runs are not transitions.
+ * Each state is stored as a fixed small integer code (see ItemStatusConverter), never by its
+ * ordinal, so states can be added or reordered without rewriting existing rows.
+ */
+public enum ItemStatus {
+    NEW((short) 0),
+    PROCESSED((short) 1),
+    ARCHIVED((short) 2);
+
+    private final short code;
+
+    ItemStatus(short code) {
+        this.code = code;
+    }
+
+    public short getCode() {
+        return code;
+    }
+
+    public boolean canTransitionTo(ItemStatus target) {
+        return this == target || switch (this) {
+            case NEW -> target == PROCESSED || target == ARCHIVED;
+            case PROCESSED -> target == NEW || target == ARCHIVED;
+            case ARCHIVED -> false;
+        };
+    }
+
+    /**
+     * Returns every state the given target can be reached from, including the target itself.
+     */
+    public static Set<ItemStatus> sourcesOf(ItemStatus target) {
+        Set<ItemStatus> sources = EnumSet.noneOf(ItemStatus.class);
+        for (ItemStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
+
+    public static ItemStatus fromCode(short code) {
+        return Arrays.stream(values())
+                .filter(status -> status.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown item status code: " + code));
+    }
+}
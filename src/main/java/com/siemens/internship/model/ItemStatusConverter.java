@@ -0,0 +1,22 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores ItemStatus as its SMALLINT code instead of a VARCHAR, which shrinks both the row and
+ * the (status, id) index and turns status filters into integer comparisons.
+ */
+@Converter(autoApply = true)
+public class ItemStatusConverter implements AttributeConverter<ItemStatus, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(ItemStatus status) {
+        return status == null ? null : status.getCode();
+    }
+
+    @Override
+    public ItemStatus convertToEntityAttribute(Short code) {
+        return code == null ? null : ItemStatus.fromCode(code);
+    }
+}
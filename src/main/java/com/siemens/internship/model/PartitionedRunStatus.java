@@ -0,0 +1,24 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Progress of a partitioned processing run across all nodes, as returned by the run API.
+ * processed and failed count the items of completed chunks; failedChunks counts the chunks given
+ * up after too many attempts, so a run has ended once done + failedChunks equals chunks. nodes
+ * is the number of nodes that have worked on the run.
+ */
+@Getter
+@AllArgsConstructor
+public class PartitionedRunStatus {
+    private String runId;
+    private long chunks;
+    private long pending;
+    private long claimed;
+    private long done;
+    private long failedChunks;
+    private long processed;
+    private long failed;
+    private long nodes;
+}
@@ -0,0 +1,32 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * Durable progress of an unfinished processing run: every item with an ID up to lastItemId has
+ * been attempted. The row exists from the first checkpoint until the run completes.
+ */
+@Entity
+@Table(name = "processing_checkpoint")
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingCheckpoint {
+    @Id
+    private String name;
+
+    private Long lastItemId;
+
+    private String jobId;
+
+    private Instant updatedAt;
+}
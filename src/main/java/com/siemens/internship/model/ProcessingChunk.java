@@ -0,0 +1,60 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * A contiguous ID range [firstItemId, lastItemId] of a partitioned processing run.
+ * A node owns a CLAIMED chunk until leaseExpiresAt and keeps extending the lease while it works
+ * on it; a chunk whose lease has run out can be claimed by any node and is continued after
+ * resumeAfter, the ID up to which every item had been attempted.
+ */
+@Entity
+@Table(name = "processing_chunk", indexes = {
+        @Index(name = "idx_chunk_state_lease", columnList = "state, leaseExpiresAt"),
+        @Index(name = "idx_chunk_run", columnList = "runId")
+})
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processing_chunk_seq")
+    @SequenceGenerator(name = "processing_chunk_seq", sequenceName = "processing_chunk_seq", allocationSize = 50)
+    private Long id;
+
+    private String runId;
+
+    private long firstItemId;
+
+    private long lastItemId;
+
+    @Enumerated(EnumType.STRING)
+    private ProcessingChunkState state;
+
+    private String owner;
+
+    private Instant leaseExpiresAt;
+
+    private Long resumeAfter;
+
+    private int attempts;
+
+    private long processed;
+
+    private long failed;
+}
@@ -0,0 +1,9 @@
+package com.siemens.internship.model;
+
+public enum ProcessingChunkState {
+    PENDING,
+    CLAIMED,
+    DONE,
+    // given up after items.partition.max-attempts attempts
+    FAILED
+}
@@ -0,0 +1,44 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * An item whose processing failed with a transient error and that is waiting to be retried.
+ * The row is written when the attempt fails and removed as soon as the item is processed, so
+ * the table always holds exactly the failed subset. nextAttemptAt is null once every allowed
+ * attempt has been used; such items are only retried by an explicit RETRY run.
+ */
+@Entity
+@Table(name = "item_processing_failure",
+        indexes = @Index(name = "idx_failure_next_attempt", columnList = "nextAttemptAt"))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingFailure {
+    public static final int MAX_ERROR_LENGTH = 500;
+
+    @Id
+    private Long itemId;
+
+    private int attempts;
+
+    private Instant firstFailedAt;
+
+    private Instant lastFailedAt;
+
+    private Instant nextAttemptAt;
+
+    @Column(length = MAX_ERROR_LENGTH)
+    private String lastError;
+}
@@ -0,0 +1,37 @@
+package com.siemens.internship.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One item processed by a job started through the job API, so that the job's results can be
+ * paged from the database instead of being held in memory. The (jobId, itemId) index serves
+ * the keyset pages of one job and the removal of its rows once the job is evicted.
+ */
+@Entity
+@Table(name = "processing_job_result",
+        indexes = @Index(name = "idx_job_result_job_item", columnList = "jobId, itemId", unique = true))
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ProcessingJobResult {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "processing_job_result_seq")
+    @SequenceGenerator(name = "processing_job_result_seq", sequenceName = "processing_job_result_seq",
+            allocationSize = 50)
+    private Long id;
+
+    private String jobId;
+
+    private Long itemId;
+}
@@ -0,0 +1,20 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * One page of the items processed by a job, in ID order.
+ * nextAfter is the after parameter of the next page, or null on the last one.
+ */
+@Getter
+@AllArgsConstructor
+public class ProcessingJobResults {
+    private String jobId;
+    private int size;
+    private long total;
+    private List<Long> itemIds;
+    private Long nextAfter;
+}
@@ -0,0 +1,8 @@
+package com.siemens.internship.model;
+
+public enum ProcessingJobState {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED
+}
@@ -0,0 +1,23 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Progress snapshot of a processing job, as returned by the job API.
+ */
+@Getter
+@AllArgsConstructor
+public class ProcessingJobStatus {
+    private String id;
+    private ProcessingMode mode;
+    private ProcessingJobState state;
+    private long processed;
+    private long failed;
+    private long retried;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+}
@@ -0,0 +1,21 @@
+package com.siemens.internship.model;
+
+/**
+ * Which items a processing run visits.
+ */
+public enum ProcessingMode {
+    /**
+     * Every item, whatever its status. An unfinished full run (interrupted by a restart, failed
+     * or cancelled) is resumed after its last checkpoint instead of starting over.
+     */
+    FULL,
+    /**
+     * Only items that are still NEW and lie above the high-water mark of earlier incremental
+     * runs.
+     */
+    INCREMENTAL,
+    /**
+     * Only items whose processing failed earlier, whether or not their next retry is due.
+     */
+    RETRY
+}
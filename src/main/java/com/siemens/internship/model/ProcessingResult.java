@@ -0,0 +1,17 @@
+package com.siemens.internship.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome counters of a processing run.
+ * retried counts the attempted items that had failed in an earlier run; it is included in
+ * processed or failed like any other attempt.
+ */
+@Getter
+@AllArgsConstructor
+public class ProcessingResult {
+    private long processed;
+    private long failed;
+    private long retried;
+}
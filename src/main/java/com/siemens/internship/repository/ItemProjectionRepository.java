@@ -0,0 +1,24 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ItemField;
+import com.siemens.internship.model.ItemStatus;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sparse-fieldset reads, mixed into ItemRepository.
+ */
+public interface ItemProjectionRepository {
+
+    /**
+     * Keyset page of items with IDs strictly greater than the given one, in ascending order,
+     * optionally restricted to one status. Only the columns of the requested fields are
+     * selected, plus the ID, which is always included; each row maps property names to values,
+     * in ItemField order.
+     * Pass Pageable.unpaged() to read every remaining row.
+     */
+    List<Map<String, Object>> findFieldsAfter(Set<ItemField> fields, ItemStatus status, Long after, Pageable pageable);
+}
@@ -0,0 +1,60 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ItemField;
+import com.siemens.internship.model.ItemStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Builds a scalar JPQL projection, like findAllIds(), over just the requested columns.
+ * Tuples are plain values rather than managed entities, so nothing is hydrated, put into the
+ * persistence context or dirty-checked, and the description column is only read when asked for.
+ * The JPQL is assembled from ItemField constants only, never from request input.
+ */
+class ItemProjectionRepositoryImpl implements ItemProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    @Autowired
+    ItemProjectionRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsAfter(Set<ItemField> fields, ItemStatus status, Long after,
+                                                     Pageable pageable) {
+        Set<ItemField> selected = EnumSet.of(ItemField.ID);
+        selected.addAll(fields);
+        String jpql = "SELECT " + selected.stream()
+                .map(field -> "i." + field.property() + " AS " + field.property())
+                .collect(Collectors.joining(", "))
+                + " FROM Item i WHERE i.id > :after"
+                + (status == null ? "" : " AND i.status = :status")
+                + " ORDER BY i.id";
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class).setParameter("after", after);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (pageable.isPaged()) {
+            query.setMaxResults(pageable.getPageSize());
+        }
+
+        List<Tuple> tuples = query.getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>(selected.size() * 2);
+            for (ItemField field : selected) {
+                row.put(field.property(), tuple.get(field.property()));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -1,12 +1,158 @@
 package com.siemens.internship.repository;
 
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface ItemRepository extends JpaRepository<Item, Long>, ItemProjectionRepository {
+    interface IdAndStatus {
+        Long getId();
+
+        ItemStatus getStatus();
+    }
+
+    interface StatusAndVersion {
+        ItemStatus getStatus();
+
+        Long getVersion();
+    }
+
+    interface IdRange {
+        Long getFirst();
+
+        Long getLast();
+    }
 
-public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("SELECT id FROM Item")
     List<Long> findAllIds();
+
+    @Query("SELECT i.id FROM Item i WHERE i.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i.id AS id, i.status AS status FROM Item i WHERE i.id IN :ids")
+    List<IdAndStatus> findStatuses(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT i.status FROM Item i WHERE i.id = :id")
+    Optional<ItemStatus> findStatusById(@Param("id") Long id);
+
+    @Query("SELECT i.version FROM Item i WHERE i.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT i.status AS status, i.version AS version FROM Item i WHERE i.id = :id")
+    Optional<StatusAndVersion> findStatusAndVersionById(@Param("id") Long id);
+
+    /**
+     * Compare-and-set update of all client-editable fields, executed in its own transaction as a
+     * single UPDATE ... WHERE id = ? AND version = ?, without loading the entity first.
+     * The row is only changed if it still has the expected version and its current status may
+     * move to the new one (one of the given source states); the version is incremented.
+     * Returns the number of updated rows, i.e. 0 when any condition did not hold.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Item i SET i.name = :name, i.description = :description, i.status = :status, i.email = :email, "
+            + "i.version = i.version + 1 WHERE i.id = :id AND i.version = :version AND i.status IN :sources")
+    int updateIfVersionMatches(@Param("id") Long id, @Param("version") Long version, @Param("name") String name,
+                               @Param("description") String description, @Param("status") ItemStatus status,
+                               @Param("email") String email, @Param("sources") Collection<ItemStatus> sources);
+
+    /**
+     * Lowest and highest item ID, both null while the table is empty; two index lookups.
+     */
+    @Query("SELECT MIN(i.id) AS first, MAX(i.id) AS last FROM Item i")
+    IdRange findIdRange();
+
+    /**
+     * Keyset page of IDs strictly greater than the given one, in ascending order.
+     * Callers pass Pageable.ofSize(n), so the page is bounded by LIMIT and never by OFFSET.
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.id > :after ORDER BY i.id")
+    List<Long> findIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Like findIdsAfter, but only up to lastId inclusive.
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.id > :after AND i.id <= :lastId ORDER BY i.id")
+    List<Long> findIdsInRangeAfter(@Param("after") Long after, @Param("lastId") Long lastId, Pageable pageable);
+
+    /**
+     * Keyset page of items with IDs strictly greater than the given one, in ascending order.
+     * Served by the primary key index, so deep pages cost the same as the first one.
+     */
+    @Query("SELECT i FROM Item i WHERE i.id > :after ORDER BY i.id")
+    List<Item> findPageAfter(@Param("after") Long after, Pageable pageable);
+
+    /**
+     * Keyset page of items with the given status and IDs strictly greater than the given one,
+     * in ascending order. Served by the (status, id) index.
+     */
+    @Query("SELECT i FROM Item i WHERE i.status = :status AND i.id > :after ORDER BY i.id")
+    List<Item> findPageByStatusAfter(@Param("status") ItemStatus status, @Param("after") Long after, Pageable pageable);
+
+    /**
+     * Keyset page of the IDs of items with the given status, strictly greater than the given ID,
+     * in ascending order. Answered from the (status, id) index alone.
+     */
+    @Query("SELECT i.id FROM Item i WHERE i.status = :status AND i.id > :after ORDER BY i.id")
+    List<Long> findIdsByStatusAfter(@Param("status") ItemStatus status, @Param("after") Long after, Pageable pageable);
+
+    /**
+     * Keyset page of the IDs of items in any of the given states, strictly greater than the given
+     * ID, in ascending order. The rows are locked for update until the caller's transaction ends,
+     * so they keep their status meanwhile; must be called inside a transaction.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i.id FROM Item i WHERE i.status IN :statuses AND i.id > :after ORDER BY i.id")
+    List<Long> lockIdsByStatusInAfter(@Param("statuses") Collection<ItemStatus> statuses, @Param("after") Long after,
+                                      Pageable pageable);
+
+    /**
+     * Forward-only cursor over all items in ID order. The stream must be consumed (and closed)
+     * inside a transaction; the fetch size keeps the driver from buffering the whole result.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT i FROM Item i ORDER BY i.id")
+    Stream<Item> streamAll();
+
+    /**
+     * Set-based status update of the given items. Only rows currently in one of the given source
+     * states are changed, and their version is incremented so that clients holding an ETag see
+     * the change. Joins the caller's transaction if there is one.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Item i SET i.status = :status, i.version = i.version + 1 "
+            + "WHERE i.id IN :ids AND i.status IN :sources")
+    int updateStatusOfIds(@Param("status") ItemStatus status, @Param("sources") Collection<ItemStatus> sources,
+                          @Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the given items from one status to another with a single statement; rows that are no
+     * longer in the source state, or have been written since they were at the given version, are
+     * left alone. Joins the caller's transaction if there is one.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Item i SET i.status = :to, i.version = i.version + 1 "
+            + "WHERE i.id IN :ids AND i.status = :from AND i.version = :version")
+    int updateStatuses(@Param("ids") Collection<Long> ids, @Param("from") ItemStatus from, @Param("to") ItemStatus to,
+                       @Param("version") Long version);
 }
@@ -0,0 +1,7 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProcessingCheckpointRepository extends JpaRepository<ProcessingCheckpoint, String> {
+}
@@ -0,0 +1,104 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingChunk;
+import com.siemens.internship.model.ProcessingChunkState;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ProcessingChunkRepository extends JpaRepository<ProcessingChunk, Long> {
+    interface StateSummary {
+        ProcessingChunkState getState();
+
+        long getChunks();
+
+        long getProcessed();
+
+        long getFailed();
+    }
+
+    /**
+     * Chunks that are waiting, or whose owner has stopped renewing its lease.
+     */
+    @Query("SELECT c.id FROM ProcessingChunk c WHERE c.state = com.siemens.internship.model.ProcessingChunkState.PENDING "
+            + "OR (c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED AND c.leaseExpiresAt < :now) "
+            + "ORDER BY c.id")
+    List<Long> findClaimableIds(@Param("now") Instant now, Pageable pageable);
+
+    /**
+     * Takes a chunk for the given owner if it is still claimable. Concurrent claims of the same
+     * chunk are serialized on its row, so exactly one of them updates it; the others see 0.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingChunk c SET c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED, "
+            + "c.owner = :owner, c.leaseExpiresAt = :expiresAt, c.attempts = c.attempts + 1 "
+            + "WHERE c.id = :id AND (c.state = com.siemens.internship.model.ProcessingChunkState.PENDING "
+            + "OR (c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED AND c.leaseExpiresAt < :now))")
+    int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now,
+              @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * Extends the lease of a chunk that is still held by the owner and records its progress;
+     * 0 means the lease has been lost.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingChunk c SET c.leaseExpiresAt = :expiresAt, c.resumeAfter = :resumeAfter "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED")
+    int renew(@Param("id") Long id, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt,
+              @Param("resumeAfter") Long resumeAfter);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingChunk c SET c.state = com.siemens.internship.model.ProcessingChunkState.DONE, "
+            + "c.leaseExpiresAt = null, c.processed = :processed, c.failed = :failed "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED")
+    int complete(@Param("id") Long id, @Param("owner") String owner, @Param("processed") long processed,
+                 @Param("failed") long failed);
+
+    /**
+     * Hands a chunk back after a failed attempt, so another node can retry it right away.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingChunk c SET c.state = com.siemens.internship.model.ProcessingChunkState.PENDING, "
+            + "c.owner = null, c.leaseExpiresAt = null, c.resumeAfter = :resumeAfter "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED")
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("resumeAfter") Long resumeAfter);
+
+    /**
+     * Hands a chunk back before its lease runs out on shutdown, so another node can continue it
+     * right away. The attempt is taken back, since the chunk did not fail.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingChunk c SET c.state = com.siemens.internship.model.ProcessingChunkState.PENDING, "
+            + "c.owner = null, c.leaseExpiresAt = null, c.resumeAfter = :resumeAfter, c.attempts = c.attempts - 1 "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED")
+    int handBack(@Param("id") Long id, @Param("owner") String owner, @Param("resumeAfter") Long resumeAfter);
+
+    /**
+     * Gives a chunk up for good; its remaining items are left to a later run.
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingChunk c SET c.state = com.siemens.internship.model.ProcessingChunkState.FAILED, "
+            + "c.leaseExpiresAt = null, c.resumeAfter = :resumeAfter "
+            + "WHERE c.id = :id AND c.owner = :owner AND c.state = com.siemens.internship.model.ProcessingChunkState.CLAIMED")
+    int fail(@Param("id") Long id, @Param("owner") String owner, @Param("resumeAfter") Long resumeAfter);
+
+    @Query("SELECT c.state AS state, COUNT(c) AS chunks, COALESCE(SUM(c.processed), 0) AS processed, "
+            + "COALESCE(SUM(c.failed), 0) AS failed "
+            + "FROM ProcessingChunk c WHERE c.runId = :runId GROUP BY c.state")
+    List<StateSummary> summarize(@Param("runId") String runId);
+
+    @Query("SELECT COUNT(DISTINCT c.owner) FROM ProcessingChunk c WHERE c.runId = :runId")
+    long countOwners(@Param("runId") String runId);
+}
@@ -0,0 +1,22 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingFailure;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ProcessingFailureRepository extends JpaRepository<ProcessingFailure, Long> {
+
+    @Query("SELECT f.itemId FROM ProcessingFailure f")
+    List<Long> findAllItemIds();
+
+    @Query("SELECT f.itemId FROM ProcessingFailure f WHERE f.itemId > :after ORDER BY f.itemId")
+    List<Long> findItemIdsAfter(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT f.itemId FROM ProcessingFailure f WHERE f.nextAttemptAt <= :now AND f.itemId > :after ORDER BY f.itemId")
+    List<Long> findDueItemIdsAfter(@Param("now") Instant now, @Param("after") Long after, Pageable pageable);
+}
@@ -0,0 +1,25 @@
+package com.siemens.internship.repository;
+
+import com.siemens.internship.model.ProcessingJobResult;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ProcessingJobResultRepository extends JpaRepository<ProcessingJobResult, Long> {
+
+    /**
+     * Keyset page of the items a job processed, in ID order.
+     */
+    @Query("SELECT r.itemId FROM ProcessingJobResult r WHERE r.jobId = :jobId AND r.itemId > :after ORDER BY r.itemId")
+    List<Long> findItemIdsAfter(@Param("jobId") String jobId, @Param("after") Long after, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ProcessingJobResult r WHERE r.jobId = :jobId")
+    int deleteByJobId(@Param("jobId") String jobId);
+}
@@ -0,0 +1,169 @@
+package com.siemens.internship.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.repository.ItemRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-item create, update and delete.
+ * Requests are split into chunks of items.batch.chunk-size and each chunk is written in its own
+ * transaction, so a large request neither holds one huge transaction nor pays one commit per
+ * item. Within a chunk Hibernate groups the statements into JDBC batches.
+ * Callers are expected to validate the whole request before calling in; existence of the
+ * targeted IDs, and for updates the validity of every status transition, is checked up front,
+ * before anything is written.
+ */
+@Service
+@Slf4j
+public class ItemBatchService {
+    private final ItemRepository itemRepository;
+    private final Cache<Long, Item> itemCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @Autowired
+    public ItemBatchService(ItemRepository itemRepository, @Qualifier("itemCache") Cache<Long, Item> itemCache,
+                            TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                            @Value("${items.batch.chunk-size:1000}") int chunkSize) {
+        this.itemRepository = itemRepository;
+        this.itemCache = itemCache;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Inserts all items as new rows; any client-supplied IDs are ignored.
+     */
+    public List<Item> createAll(List<Item> items) {
+        List<Item> saved = new ArrayList<>(items.size());
+        for (List<Item> chunk : chunks(items)) {
+            chunk.forEach(item -> item.setId(null));
+            List<Item> savedChunk = itemRepository.saveAll(chunk);
+            saved.addAll(savedChunk);
+            eventPublisher.publishEvent(ItemChangeEvent.of(ItemChangeType.CREATED, savedChunk));
+        }
+        saved.forEach(item -> itemCache.put(item.getId(), item));
+        log.info("Created {} items in {} chunks.", saved.size(), chunkCount(items.size()));
+        return saved;
+    }
+
+    /**
+     * Replaces the fields of existing items, matched by ID.
+     * Each chunk loads its targets with one query and lets dirty checking flush the changes
+     * as batched UPDATEs on commit.
+     * Throws NoSuchElementException, without writing anything, if any ID does not exist, and
+     * IllegalStateException if any item cannot move to the requested status.
+     */
+    public List<Item> updateAll(List<Item> items) {
+        Map<Long, ItemStatus> current = currentStatuses(items.stream().map(Item::getId).toList());
+        List<Long> invalid = items.stream()
+                .filter(item -> !current.get(item.getId()).canTransitionTo(item.getStatus()))
+                .map(Item::getId)
+                .toList();
+        if (!invalid.isEmpty()) {
+            log.warn("Batch request contains {} invalid status transitions.", invalid.size());
+            throw new IllegalStateException("Items with IDs " + invalid + " cannot move to the requested status");
+        }
+
+        List<Item> updated = new ArrayList<>(items.size());
+        for (List<Item> chunk : chunks(items)) {
+            List<Item> updatedChunk = Objects.requireNonNull(transactionTemplate.execute(status -> updateChunk(chunk)));
+            updated.addAll(updatedChunk);
+            eventPublisher.publishEvent(ItemChangeEvent.of(ItemChangeType.UPDATED, updatedChunk));
+        }
+        updated.forEach(item -> itemCache.put(item.getId(), item));
+        log.info("Updated {} items in {} chunks.", updated.size(), chunkCount(items.size()));
+        return updated;
+    }
+
+    /**
+     * Deletes the items with the given IDs with one DELETE ... WHERE id IN statement per chunk.
+     * Throws NoSuchElementException, without deleting anything, if any ID does not exist.
+     */
+    public void deleteAll(List<Long> ids) {
+        requireExisting(ids);
+
+        for (List<Long> chunk : chunks(ids)) {
+            itemRepository.deleteAllByIdInBatch(chunk);
+            itemCache.invalidateAll(chunk);
+            eventPublisher.publishEvent(ItemChangeEvent.ofIds(ItemChangeType.DELETED, chunk));
+        }
+        log.info("Deleted {} items in {} chunks.", ids.size(), chunkCount(ids.size()));
+    }
+
+    private List<Item> updateChunk(List<Item> chunk) {
+        Map<Long, Item> managed = itemRepository.findAllById(chunk.stream().map(Item::getId).toList()).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        List<Item> result = new ArrayList<>(chunk.size());
+        for (Item update : chunk) {
+            Item target = managed.get(update.getId());
+            if (target == null) {
+                // deleted after the up-front existence check; roll the chunk back
+                throw new NoSuchElementException("Item with ID " + update.getId() + " not found");
+            }
+            if (!target.getStatus().canTransitionTo(update.getStatus())) {
+                // changed after the up-front check; roll the chunk back
+                throw new IllegalStateException("Item with ID " + update.getId() + " cannot move from "
+                        + target.getStatus() + " to " + update.getStatus());
+            }
+            target.setName(update.getName());
+            target.setDescription(update.getDescription());
+            target.setStatus(update.getStatus());
+            target.setEmail(update.getEmail());
+            result.add(target);
+        }
+        return result;
+    }
+
+    private Map<Long, ItemStatus> currentStatuses(List<Long> ids) {
+        Map<Long, ItemStatus> statuses = new HashMap<>(ids.size() * 2);
+        for (List<Long> chunk : chunks(ids)) {
+            itemRepository.findStatuses(chunk).forEach(row -> statuses.put(row.getId(), row.getStatus()));
+        }
+        List<Long> missing = ids.stream().filter(id -> !statuses.containsKey(id)).toList();
+        if (!missing.isEmpty()) {
+            log.warn("Batch request references {} missing items.", missing.size());
+            throw new NoSuchElementException("Items with IDs " + missing + " not found");
+        }
+        return statuses;
+    }
+
+    private void requireExisting(List<Long> ids) {
+        Set<Long> missing = new LinkedHashSet<>(ids);
+        for (List<Long> chunk : chunks(ids)) {
+            itemRepository.findExistingIds(chunk).forEach(missing::remove);
+        }
+        if (!missing.isEmpty()) {
+            log.warn("Batch request references {} missing items.", missing.size());
+            throw new NoSuchElementException("Items with IDs " + missing + " not found");
+        }
+    }
+
+    private <T> List<List<T>> chunks(List<T> values) {
+        List<List<T>> chunks = new ArrayList<>(chunkCount(values.size()));
+        for (int from = 0; from < values.size(); from += chunkSize) {
+            chunks.add(values.subList(from, Math.min(values.size(), from + chunkSize)));
+        }
+        return chunks;
+    }
+
+    private int chunkCount(int size) {
+        return (size + chunkSize - 1) / chunkSize;
+    }
+}
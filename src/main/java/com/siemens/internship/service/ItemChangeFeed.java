@@ -0,0 +1,268 @@
+package com.siemens.internship.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.model.ItemChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Server-sent event stream of item changes, so consumers no longer have to poll the item list.
+ * Every ItemChangeEvent is serialized once and appended to a ring buffer of
+ * items.feed.buffer-size entries under a sequence number; writers only append and wake the
+ * subscribers up, they never wait for a client.
+ * Each subscriber drains the buffer from its own cursor on the feedExecutor, so a slow client
+ * only falls behind itself. A subscriber whose cursor has been overwritten, or that resumes
+ * with a Last-Event-ID the buffer no longer covers (or one issued before a restart), receives a
+ * "reset" event and continues with the newest changes; it has to reload whatever it mirrors.
+ */
+@Component
+@Slf4j
+public class ItemChangeFeed {
+    private static final String RESET_EVENT = "reset";
+    private static final int MAX_SEND_BATCH = 100;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor executor;
+    private final int maxSubscribers;
+    private final Duration timeout;
+    private final Entry[] buffer;
+    // guarded by buffer
+    private long nextSequence = 1;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter resets;
+
+    @Autowired
+    public ItemChangeFeed(ObjectMapper objectMapper, @Qualifier("feedExecutor") TaskExecutor executor,
+                          @Value("${items.feed.buffer-size:10000}") int bufferSize,
+                          @Value("${items.feed.max-subscribers:100}") int maxSubscribers,
+                          @Value("${items.feed.timeout:30m}") Duration timeout,
+                          MeterRegistry meterRegistry) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Feed buffer size must be positive, was " + bufferSize);
+        }
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.buffer = new Entry[bufferSize];
+        this.resets = Counter.builder("items.feed.resets")
+                .description("Change feed subscribers that fell behind the buffer and were reset")
+                .register(meterRegistry);
+        Gauge.builder("items.feed.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final String name;
+        private final String data;
+
+        private Entry(long sequence, String name, String data) {
+            this.sequence = sequence;
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    @EventListener
+    public void onItemChange(ItemChangeEvent event) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("type", event.getType());
+        data.put("ids", event.getIds());
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException e) {
+            // cannot happen for an enum and a list of IDs; the write itself is committed already
+            log.error("Could not publish change of items {}.", event.getIds(), e);
+            return;
+        }
+        String name = event.getType().name().toLowerCase(Locale.ROOT);
+        synchronized (buffer) {
+            buffer[(int) (nextSequence % buffer.length)] = new Entry(nextSequence, name, json);
+            nextSequence++;
+        }
+        subscribers.forEach(Subscriber::signal);
+    }
+
+    /**
+     * Opens a stream starting after lastEventId, or with the next change when it is null.
+     * Throws IllegalStateException when items.feed.max-subscribers streams are open already.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("The change feed already has " + maxSubscribers + " subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Long resumeFrom = resumePosition(lastEventId);
+        long start = resumeFrom != null ? resumeFrom : head();
+        Subscriber subscriber = new Subscriber(emitter, start, lastEventId != null && resumeFrom == null);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.signal();
+        log.info("Change feed subscriber added at sequence {}, {} open.", start, subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Closes every stream on shutdown, so open connections do not hold up the web server.
+     */
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+    }
+
+    /**
+     * Sequence number to continue from for an event ID of this instance that the buffer still
+     * covers, or null when the stream has to be reset.
+     */
+    private Long resumePosition(String lastEventId) {
+        if (lastEventId == null || !lastEventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        try {
+            long next = Long.parseLong(lastEventId.substring(epoch.length() + 1)) + 1;
+            synchronized (buffer) {
+                return next >= oldestSequence() && next <= nextSequence ? next : null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private long head() {
+        synchronized (buffer) {
+            return nextSequence;
+        }
+    }
+
+    // caller holds the buffer lock
+    private long oldestSequence() {
+        return Math.max(1, nextSequence - buffer.length);
+    }
+
+    /**
+     * Entries from the given sequence on, at most MAX_SEND_BATCH of them, or null when the
+     * oldest of them has been overwritten already.
+     */
+    private List<Entry> read(long from) {
+        synchronized (buffer) {
+            if (from < oldestSequence()) {
+                return null;
+            }
+            long to = Math.min(nextSequence, from + MAX_SEND_BATCH);
+            List<Entry> entries = new ArrayList<>((int) (to - from));
+            for (long sequence = from; sequence < to; sequence++) {
+                entries.add(buffer[(int) (sequence % buffer.length)]);
+            }
+            return entries;
+        }
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        // only touched by drain(), which never runs concurrently with itself
+        private long cursor;
+        private boolean resetPending;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private Subscriber(SseEmitter emitter, long cursor, boolean resetPending) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+            this.resetPending = resetPending;
+        }
+
+        private void signal() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RuntimeException e) {
+                    scheduled.set(false);
+                    drop(e);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                List<Entry> entries;
+                while (true) {
+                    if (resetPending) {
+                        sendReset();
+                    }
+                    entries = read(cursor);
+                    if (entries == null) {
+                        resetPending = true;
+                        continue;
+                    }
+                    if (entries.isEmpty()) {
+                        break;
+                    }
+                    for (Entry entry : entries) {
+                        emitter.send(SseEmitter.event()
+                                .id(epoch + "-" + entry.sequence)
+                                .name(entry.name)
+                                .data(entry.data, MediaType.APPLICATION_JSON));
+                        cursor = entry.sequence + 1;
+                    }
+                }
+            } catch (Exception e) {
+                // the client went away or the emitter timed out
+                drop(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            // an append between the last read and clearing the flag would otherwise go unnoticed
+            if (cursor < head()) {
+                signal();
+            }
+        }
+
+        private void sendReset() throws IOException {
+            long head = head();
+            log.warn("Change feed subscriber at sequence {} fell behind or cannot resume; resetting to {}.",
+                    cursor, head);
+            resets.increment();
+            emitter.send(SseEmitter.event().id(epoch + "-" + (head - 1)).name(RESET_EVENT).data("{}",
+                    MediaType.APPLICATION_JSON));
+            cursor = head;
+            resetPending = false;
+        }
+
+        private void drop(Exception e) {
+            if (subscribers.remove(this)) {
+                log.info("Change feed subscriber removed: {}", e.toString());
+                emitter.completeWithError(e);
+            }
+        }
+    }
+}
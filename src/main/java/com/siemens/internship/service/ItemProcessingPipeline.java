@@ -0,0 +1,201 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingResult;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.LongFunction;
+
+/**
+ * Runs a per-item task over the whole ID space with bounded memory.
+ * IDs are pulled one keyset page at a time and at most maxInFlight tasks are in flight at any
+ * moment; whenever a task completes, its result is handed to the sink and the next ID is
+ * submitted. Nothing is retained per item, and no thread ever blocks waiting for the window,
+ * so the pipeline cannot starve the executor it submits to.
+ * Once the cancellation flag is raised no further IDs are submitted; the run completes as soon
+ * as the items already in flight are done.
+ * IDs are taken in ascending order but complete in any order, so after every completion the
+ * progress listener receives the safe point: the highest ID up to which every item has been
+ * attempted (just below the lowest ID still in flight). A run restarted after the safe point
+ * misses nothing.
+ * If the sink or the progress listener throws, no further IDs are taken and the run completes
+ * with that exception. Submissions are drained in a loop rather than by recursion, so an
+ * executor that runs tasks in the calling thread does not grow the stack with every item.
+ */
+final class ItemProcessingPipeline {
+
+    private final LongFunction<List<Long>> pageLoader;
+    private final Function<Long, CompletableFuture<Item>> task;
+    private final Consumer<Item> sink;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final BooleanSupplier cancelled;
+    private final LongConsumer progress;
+
+    // not a monitor: the next page is loaded while it is held, and a virtual thread blocked on
+    // JDBC inside synchronized would pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // submissions requested but not made yet; whoever raises it from 0 makes them all
+    private final AtomicInteger requestedSubmissions = new AtomicInteger();
+    private final CompletableFuture<ProcessingResult> completion = new CompletableFuture<>();
+    private Iterator<Long> page = Collections.emptyIterator();
+    private long lastId = Long.MIN_VALUE;
+    private boolean exhausted;
+    // IDs submitted but not completed yet, guarded by lock
+    private final TreeSet<Long> inFlight = new TreeSet<>();
+
+    /**
+     * @param pageLoader returns the next page of IDs strictly after the given one, empty when done
+     * @param task       processes one item, completing with it, or with null when it failed
+     * @param sink       receives every successfully processed item as soon as it completes
+     * @param cancelled  polled before every ID is taken; true stops the run early
+     * @param progress   receives the safe point after every completed item
+     */
+    ItemProcessingPipeline(LongFunction<List<Long>> pageLoader, Function<Long, CompletableFuture<Item>> task,
+                           Consumer<Item> sink, Executor executor, int maxInFlight, BooleanSupplier cancelled,
+                           LongConsumer progress) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("Maximum in-flight items must be positive, was " + maxInFlight);
+        }
+        this.pageLoader = pageLoader;
+        this.task = task;
+        this.sink = sink;
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.cancelled = cancelled;
+        this.progress = progress;
+    }
+
+    /**
+     * Fills the window from the executor, so the caller never waits for the first page.
+     */
+    CompletableFuture<ProcessingResult> start() {
+        try {
+            executor.execute(() -> requestSubmissions(maxInFlight));
+        } catch (RuntimeException e) {
+            completion.completeExceptionally(e);
+        }
+        return completion;
+    }
+
+    /**
+     * Makes count more submissions, unless another call on the stack or in another thread is
+     * making submissions already, in which case that one makes these as well.
+     */
+    private void requestSubmissions(int count) {
+        if (requestedSubmissions.getAndAdd(count) != 0) {
+            return;
+        }
+        int pending = count;
+        do {
+            for (int i = 0; i < pending; i++) {
+                submitNext();
+            }
+            pending = requestedSubmissions.addAndGet(-pending);
+        } while (pending != 0);
+    }
+
+    private void submitNext() {
+        Long id;
+        try {
+            lock.lock();
+            try {
+                id = nextId();
+                if (id == null) {
+                    if (inFlight.isEmpty()) {
+                        completion.complete(new ProcessingResult(processed.get(), failed.get(), 0));
+                    }
+                    return;
+                }
+                inFlight.add(id);
+            } finally {
+                lock.unlock();
+            }
+            // the task starts on the executor and may continue on other executors before completing
+            CompletableFuture.supplyAsync(() -> task.apply(id), executor)
+                    .thenCompose(Function.identity())
+                    .whenComplete((item, error) -> onTaskCompleted(id, item, error));
+        } catch (RuntimeException e) {
+            // page loading or task submission failed; the run cannot make progress anymore
+            fail(e);
+        }
+    }
+
+    private void onTaskCompleted(Long id, Item item, Throwable error) {
+        RuntimeException callbackError = null;
+        try {
+            if (item != null && error == null) {
+                processed.incrementAndGet();
+                sink.accept(item);
+            } else {
+                failed.incrementAndGet();
+            }
+        } catch (RuntimeException e) {
+            callbackError = e;
+        }
+        long safePoint;
+        lock.lock();
+        try {
+            inFlight.remove(id);
+            safePoint = inFlight.isEmpty() ? lastId : inFlight.first() - 1;
+        } finally {
+            lock.unlock();
+        }
+        try {
+            progress.accept(safePoint);
+        } catch (RuntimeException e) {
+            if (callbackError == null) {
+                callbackError = e;
+            }
+        }
+        if (callbackError != null) {
+            fail(callbackError);
+        }
+        requestSubmissions(1);
+    }
+
+    /**
+     * Stops taking IDs and completes the run with the given exception.
+     */
+    private void fail(RuntimeException e) {
+        lock.lock();
+        try {
+            exhausted = true;
+            page = Collections.emptyIterator();
+        } finally {
+            lock.unlock();
+        }
+        completion.completeExceptionally(e);
+    }
+
+    private Long nextId() {
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+        if (!page.hasNext() && !exhausted && !completion.isDone()) {
+            List<Long> ids = pageLoader.apply(lastId);
+            exhausted = ids.isEmpty();
+            page = ids.iterator();
+        }
+        if (!page.hasNext()) {
+            return null;
+        }
+        Long id = page.next();
+        lastId = id;
+        return id;
+    }
+}
@@ -0,0 +1,192 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the ItemProcessor beans as a staged pipeline.
+ * Every processor is a stage with a queue of its own. Each stage runs at most
+ * items.processing.stages.[name].parallelism tasks at once, and every task takes up to
+ * .batch-size waiting items, so under load one executor hand-off serves a whole batch while a
+ * lone item still starts right away. CPU stages run on the cpuExecutor fork-join pool (by
+ * default with one task per core) and IO stages on the taskExecutor (by default 4 tasks), so
+ * CPU-heavy work uses every core instead of queueing behind JDBC calls for taskExecutor
+ * permits, and a slow stage only holds up its own queue.
+ * Per stage, items.processing.stage (tagged with stage and outcome) times the processing of
+ * each item, and so also counts the throughput; items.processing.stage.wait times how long items
+ * queue and items.processing.stage.queued shows how many are waiting.
+ */
+@Component
+@Slf4j
+public class ItemProcessingStages {
+    private static final int DEFAULT_IO_PARALLELISM = 4;
+    private static final int DEFAULT_BATCH_SIZE = 16;
+
+    private final List<Stage> stages = new ArrayList<>();
+
+    @Autowired
+    public ItemProcessingStages(ObjectProvider<ItemProcessor> processors,
+                                @Qualifier("taskExecutor") TaskExecutor ioExecutor,
+                                @Qualifier("cpuExecutor") ForkJoinPool cpuExecutor,
+                                Environment environment, MeterRegistry meterRegistry) {
+        this(processors.orderedStream().toList(), ioExecutor, cpuExecutor, environment, meterRegistry);
+    }
+
+    public ItemProcessingStages(List<ItemProcessor> processors, Executor ioExecutor, ForkJoinPool cpuExecutor,
+                                Environment environment, MeterRegistry meterRegistry) {
+        for (ItemProcessor processor : processors) {
+            boolean cpu = processor.getKind() == ItemProcessor.Kind.CPU;
+            String prefix = "items.processing.stages." + processor.getName() + ".";
+            int parallelism = environment.getProperty(prefix + "parallelism", Integer.class,
+                    cpu ? cpuExecutor.getParallelism() : DEFAULT_IO_PARALLELISM);
+            int batchSize = environment.getProperty(prefix + "batch-size", Integer.class, DEFAULT_BATCH_SIZE);
+            if (parallelism <= 0 || batchSize <= 0) {
+                throw new IllegalArgumentException("Parallelism and batch size of stage " + processor.getName()
+                        + " must be positive, were " + parallelism + " and " + batchSize);
+            }
+            stages.add(new Stage(processor, cpu ? cpuExecutor : ioExecutor, parallelism, batchSize, meterRegistry));
+            log.info("Item processing stage {}: {}, {} tasks of up to {} items", processor.getName(),
+                    processor.getKind(), parallelism, batchSize);
+        }
+    }
+
+    public boolean isEmpty() {
+        return stages.isEmpty();
+    }
+
+    /**
+     * Passes the item through every stage in order. The future completes with the item once
+     * the last stage is done, or exceptionally with the first processor exception.
+     */
+    public CompletableFuture<Item> process(Item item) {
+        CompletableFuture<Item> result = CompletableFuture.completedFuture(item);
+        for (Stage stage : stages) {
+            result = result.thenCompose(stage::submit);
+        }
+        return result;
+    }
+
+    private static final class Stage {
+        private final ItemProcessor processor;
+        private final Executor executor;
+        private final int parallelism;
+        private final int batchSize;
+        private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final Timer succeeded;
+        private final Timer failed;
+        private final Timer waited;
+
+        private Stage(ItemProcessor processor, Executor executor, int parallelism, int batchSize,
+                      MeterRegistry meterRegistry) {
+            this.processor = processor;
+            this.executor = executor;
+            this.parallelism = parallelism;
+            this.batchSize = batchSize;
+            this.succeeded = stageTimer(meterRegistry, "success");
+            this.failed = stageTimer(meterRegistry, "failure");
+            this.waited = Timer.builder("items.processing.stage.wait")
+                    .description("Time items wait for a processing stage")
+                    .tag("stage", processor.getName())
+                    .register(meterRegistry);
+            Gauge.builder("items.processing.stage.queued", queued, AtomicInteger::get)
+                    .description("Items waiting for a processing stage")
+                    .tag("stage", processor.getName())
+                    .register(meterRegistry);
+        }
+
+        private Timer stageTimer(MeterRegistry meterRegistry, String outcome) {
+            return Timer.builder("items.processing.stage")
+                    .description("Latency of a processing stage per item")
+                    .tag("stage", processor.getName())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        private CompletableFuture<Item> submit(Item item) {
+            Pending pending = new Pending(item, System.nanoTime(), new CompletableFuture<>());
+            queue.add(pending);
+            queued.incrementAndGet();
+            dispatch();
+            return pending.future;
+        }
+
+        /**
+         * Starts tasks while items are waiting and fewer than parallelism tasks run. Called after
+         * every submission and by every finishing task, so no item is left behind: either a
+         * submitter sees the free slot or the task that frees it sees the item.
+         */
+        private void dispatch() {
+            while (!queue.isEmpty()) {
+                int current = running.get();
+                if (current >= parallelism) {
+                    return;
+                }
+                if (!running.compareAndSet(current, current + 1)) {
+                    continue;
+                }
+                List<Pending> batch = new ArrayList<>(batchSize);
+                Pending pending;
+                while (batch.size() < batchSize && (pending = queue.poll()) != null) {
+                    batch.add(pending);
+                }
+                queued.addAndGet(-batch.size());
+                if (batch.isEmpty()) {
+                    // another dispatcher took the items first
+                    running.decrementAndGet();
+                    continue;
+                }
+                try {
+                    executor.execute(() -> run(batch));
+                } catch (RuntimeException e) {
+                    running.decrementAndGet();
+                    batch.forEach(rejected -> rejected.future.completeExceptionally(e));
+                }
+            }
+        }
+
+        private void run(List<Pending> batch) {
+            try {
+                for (Pending pending : batch) {
+                    long start = System.nanoTime();
+                    waited.record(start - pending.submittedAt, TimeUnit.NANOSECONDS);
+                    try {
+                        processor.process(pending.item);
+                        succeeded.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        pending.future.complete(pending.item);
+                    } catch (Exception e) {
+                        failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                        pending.future.completeExceptionally(e);
+                    }
+                }
+            } finally {
+                running.decrementAndGet();
+                dispatch();
+            }
+        }
+    }
+
+    private record Pending(Item item, long submittedAt, CompletableFuture<Item> future) {
+    }
+}
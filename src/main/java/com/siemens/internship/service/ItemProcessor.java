@@ -0,0 +1,36 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+
+/**
+ * A step of per-item processing, such as enriching, validating or transforming an item.
+ * Every ItemProcessor bean becomes a stage run between loading an item and saving it as
+ * PROCESSED, in @Order order; with none, items are only marked and saved. Processors work on
+ * the loaded entity in place, and whatever they change is saved together with the status.
+ * A processor is called for many items at once and must be thread-safe.
+ * Throwing IllegalArgumentException or IllegalStateException rejects the item for good (it stays
+ * unprocessed and is not retried); any other exception is treated as transient and the item is
+ * recorded for retry.
+ */
+public interface ItemProcessor {
+
+    /**
+     * Where a stage runs: CPU stages on the cpuExecutor fork-join pool, sized to the cores, and
+     * IO stages on the taskExecutor, which is sized for blocking calls.
+     */
+    enum Kind {
+        CPU,
+        IO
+    }
+
+    /**
+     * Names the stage in metrics and in its items.processing.stages.[name].* settings.
+     */
+    String getName();
+
+    default Kind getKind() {
+        return Kind.CPU;
+    }
+
+    void process(Item item) throws Exception;
+}
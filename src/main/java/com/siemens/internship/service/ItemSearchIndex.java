@@ -0,0 +1,213 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChangeEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In-memory Lucene index over the name and description of every item, for ranked prefix search.
+ * It is rebuilt from the table on startup, before the web server accepts requests, and kept up
+ * to date from the ItemChangeEvents published by the services; status-only changes do not touch
+ * the indexed text and are ignored. Searches reopen the reader only when something was written
+ * since the last one, so every search sees the writes completed before it.
+ * Each query token must match a name or description term, either exactly or as a prefix; exact
+ * matches rank above prefix matches and name matches above description matches. Ranking by score
+ * alone (ties fall back to index order) lets Lucene skip blocks of documents that cannot make
+ * the requested page, so even one-letter prefixes over a million items stay cheap.
+ */
+@Component
+@Slf4j
+public class ItemSearchIndex implements SmartLifecycle {
+    /** Largest page * size window a search may ask for. */
+    public static final int MAX_WINDOW = 10_000;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final String ID = "id";
+    private static final String NAME = "name";
+    private static final String DESCRIPTION = "description";
+
+    private final ItemService itemService;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private volatile boolean running;
+
+    /**
+     * Matching IDs in rank order; total is exact up to 1000 matches and a lower bound beyond.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Hits {
+        private List<Long> ids;
+        private long total;
+        private boolean totalExact;
+    }
+
+    @Autowired
+    public ItemSearchIndex(ItemService itemService) throws IOException {
+        this.itemService = itemService;
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, null);
+    }
+
+    @Override
+    public void start() {
+        try {
+            writer.deleteAll();
+            long count = itemService.streamAll(this::index);
+            searcherManager.maybeRefreshBlocking();
+            log.info("Indexed {} items for search.", count);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            searcherManager.close();
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Could not close the search index.", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts before the web server, so no request is served from a partially built index.
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @EventListener
+    public void onItemChange(ItemChangeEvent event) {
+        try {
+            switch (event.getType()) {
+                case CREATED, UPDATED -> {
+                    for (Item item : event.getItems()) {
+                        index(item);
+                    }
+                }
+                case DELETED -> {
+                    for (Long id : event.getIds()) {
+                        writer.deleteDocuments(new Term(ID, id.toString()));
+                    }
+                }
+                case PROCESSED -> {
+                    // name and description are unchanged
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // the write itself is committed already, so neither an I/O error nor a closed writer may
+            // fail the request; the index just misses the change until the next restart
+            log.error("Could not index change of items {}.", event.getIds(), e);
+        }
+    }
+
+    private void index(Item item) {
+        Document document = new Document();
+        document.add(new StringField(ID, item.getId().toString(), Field.Store.YES));
+        document.add(new TextField(NAME, item.getName(), Field.Store.NO));
+        if (item.getDescription() != null) {
+            document.add(new TextField(DESCRIPTION, item.getDescription(), Field.Store.NO));
+        }
+        try {
+            writer.updateDocument(new Term(ID, item.getId().toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the requested page of matches. Throws IllegalArgumentException when the query
+     * contains no searchable token or the page lies beyond MAX_WINDOW.
+     */
+    public Hits search(String queryText, int page, int size) {
+        if ((long) (page + 1) * size > MAX_WINDOW) {
+            throw new IllegalArgumentException("Search results are limited to the first " + MAX_WINDOW + " matches");
+        }
+        Query query = parse(queryText);
+        try {
+            searcherManager.maybeRefreshBlocking();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs top = searcher.search(query, (page + 1) * size);
+                StoredFields storedFields = searcher.storedFields();
+                List<Long> ids = new ArrayList<>(size);
+                for (int i = page * size; i < top.scoreDocs.length; i++) {
+                    ids.add(Long.valueOf(storedFields.document(top.scoreDocs[i].doc).get(ID)));
+                }
+                return new Hits(ids, top.totalHits.value,
+                        top.totalHits.relation == TotalHits.Relation.EQUAL_TO);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Query parse(String queryText) {
+        List<String> tokens = tokenize(queryText);
+        if (tokens.isEmpty()) {
+            throw new IllegalArgumentException("Search query contains no searchable terms: " + queryText);
+        }
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        for (String token : tokens) {
+            query.add(new BooleanQuery.Builder()
+                    .add(new BoostQuery(new TermQuery(new Term(NAME, token)), 4f), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(NAME, token)), 2f), BooleanClause.Occur.SHOULD)
+                    .add(new TermQuery(new Term(DESCRIPTION, token)), BooleanClause.Occur.SHOULD)
+                    .add(new BoostQuery(new PrefixQuery(new Term(DESCRIPTION, token)), 0.5f), BooleanClause.Occur.SHOULD)
+                    .build(), BooleanClause.Occur.MUST);
+        }
+        return query.build();
+    }
+
+    private List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(NAME, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (tokens.size() < MAX_QUERY_TERMS && stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return tokens;
+    }
+}
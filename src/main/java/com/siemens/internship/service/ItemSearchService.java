@@ -0,0 +1,62 @@
+package com.siemens.internship.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.siemens.internship.config.SampledLog;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemSearchResults;
+import com.siemens.internship.repository.ItemRepository;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over item names and descriptions.
+ * Matching and ranking happen in the ItemSearchIndex; the items of a page are then taken from
+ * the item cache, with the missing ones loaded in a single query, so a page never costs more
+ * than one round trip.
+ * Searches are summarized every items.logging.summary-interval; the per-search line, which
+ * contains the query text, is DEBUG on the ItemSearchService.search logger.
+ */
+@Service
+public class ItemSearchService {
+    private final ItemSearchIndex searchIndex;
+    private final ItemRepository itemRepository;
+    private final Cache<Long, Item> itemCache;
+    private final SampledLog searchLog;
+
+    @Autowired
+    public ItemSearchService(ItemSearchIndex searchIndex, ItemRepository itemRepository,
+                             @Qualifier("itemCache") Cache<Long, Item> itemCache,
+                             @Value("${items.logging.summary-interval:10s}") Duration logSummaryInterval) {
+        this.searchIndex = searchIndex;
+        this.itemRepository = itemRepository;
+        this.itemCache = itemCache;
+        this.searchLog = new SampledLog(LoggerFactory.getLogger(ItemSearchService.class.getName() + ".search"),
+                "Item searches", logSummaryInterval);
+    }
+
+    /**
+     * Throws IllegalArgumentException for queries without searchable terms and for pages beyond
+     * ItemSearchIndex.MAX_WINDOW.
+     */
+    public ItemSearchResults search(String query, int page, int size) {
+        ItemSearchIndex.Hits hits = searchIndex.search(query, page, size);
+        Map<Long, Item> items = itemCache.getAll(hits.getIds(), missing -> itemRepository.findAllById(List.copyOf(missing)).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity())));
+        // an item deleted between the search and the lookup is simply left out
+        List<Item> ranked = hits.getIds().stream().map(items::get).filter(Objects::nonNull).toList();
+        searchLog.getLogger().debug("Search for '{}' matched {}{} items.", query, hits.getTotal(),
+                hits.isTotalExact() ? "" : "+");
+        searchLog.count(hits.getTotal() > 0 ? "matched" : "empty");
+        return new ItemSearchResults(query, page, size, hits.getTotal(), hits.isTotalExact(), ranked);
+    }
+}
@@ -1,16 +1,46 @@
 package com.siemens.internship.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.siemens.internship.config.SampledLog;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemCacheStats;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.model.ItemField;
+import com.siemens.internship.model.ItemFieldsPage;
+import com.siemens.internship.model.ItemPage;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ProcessingResult;
 import com.siemens.internship.repository.ItemRepository;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
 
 /**
  * Issues:
@@ -31,36 +61,215 @@ import java.util.concurrent.*;
  *   Spring bean, allowing proper lifecycle management)
  * - modify the return type of the @Async annotated method to Future-like type
  * - delete the fields processedItems and processedCount
+ * - items that fail with a transient error are recorded by ProcessingFailureService and retried
+ *   with backoff instead of being dropped; retry runs only visit that failed subset
+ * - with items.write-behind.enabled, status transitions are coalesced per item and written in
+ *   batched transactions by ItemWriteBehindBuffer instead of one save and commit each
+ * - the work done on an item between loading and saving it is pluggable: ItemProcessor beans run
+ *   as ItemProcessingStages, CPU-bound ones on a fork-join pool instead of the JDBC executor
+ * - lookups and processed items are no longer logged one line each at INFO; SampledLog writes a
+ *   summary of their outcomes every items.logging.summary-interval, and the per-item lines are
+ *   DEBUG on the ItemService.lookup and ItemService.processing loggers, switchable at runtime
  */
 
 @Service
 @Slf4j
+@Timed(value = "items.service", description = "ItemService method invocations")
 public class ItemService {
+    private static final String PAGE_TOKEN_PREFIX = "v1:";
+    // only NEW: PROCESSED rows would be rewritten with a new version and reported as changed
+    private static final Set<ItemStatus> PROCESSABLE_STATUSES = EnumSet.of(ItemStatus.NEW);
+
     private final ItemRepository itemRepository;
     private final TaskExecutor executor;
+    private final EntityManager entityManager;
+    private final Cache<Long, Item> itemCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProcessingFailureService failureService;
+    private final ItemWriteBehindBuffer writeBehind;
+    private final ItemProcessingStages stages;
+    private final TransactionTemplate transactionTemplate;
+    private final int processingPageSize;
+    private final int processingMaxInFlight;
+    private final Timer itemProcessedTimer;
+    private final Timer itemFailedTimer;
+    private final SampledLog lookupLog;
+    private final SampledLog processingLog;
+    // every item with an ID up to this mark has been visited by a successful incremental run
+    private final AtomicLong processedHighWaterMark = new AtomicLong(Long.MIN_VALUE);
 
     @Autowired
-    public ItemService(ItemRepository itemRepository, @Qualifier("taskExecutor") TaskExecutor executor) {
+    public ItemService(ItemRepository itemRepository, @Qualifier("taskExecutor") TaskExecutor executor,
+                       EntityManager entityManager, @Qualifier("itemCache") Cache<Long, Item> itemCache,
+                       ApplicationEventPublisher eventPublisher, ProcessingFailureService failureService,
+                       ItemWriteBehindBuffer writeBehind, ItemProcessingStages stages,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${items.processing.page-size:500}") int processingPageSize,
+                       @Value("${items.processing.max-in-flight:100}") int processingMaxInFlight,
+                       @Value("${items.logging.summary-interval:10s}") Duration logSummaryInterval,
+                       MeterRegistry meterRegistry) {
         this.itemRepository = itemRepository;
         this.executor = executor;
+        this.entityManager = entityManager;
+        this.itemCache = itemCache;
+        this.eventPublisher = eventPublisher;
+        this.failureService = failureService;
+        this.writeBehind = writeBehind;
+        this.stages = stages;
+        this.transactionTemplate = transactionTemplate;
+        this.processingPageSize = processingPageSize;
+        this.processingMaxInFlight = processingMaxInFlight;
+        this.itemProcessedTimer = itemProcessingTimer(meterRegistry, "success");
+        this.itemFailedTimer = itemProcessingTimer(meterRegistry, "failure");
+        this.lookupLog = new SampledLog(LoggerFactory.getLogger(ItemService.class.getName() + ".lookup"),
+                "Item lookups", logSummaryInterval);
+        this.processingLog = new SampledLog(LoggerFactory.getLogger(ItemService.class.getName() + ".processing"),
+                "Processed items", logSummaryInterval);
+        Gauge.builder("items.processing.high-water-mark", processedHighWaterMark, AtomicLong::get)
+                .description("Highest item ID covered by incremental processing")
+                .register(meterRegistry);
+    }
+
+    private static Timer itemProcessingTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("items.processing.item")
+                .description("Latency of processing a single item")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     public List<Item> findAll() {
         return itemRepository.findAll();
     }
 
+    /**
+     * Hands every item to the consumer in ID order while reading them through a database cursor.
+     * Each entity is detached once consumed, so the persistence context (and the heap) stays
+     * constant no matter how large the table is.
+     * Returns the number of items streamed.
+     */
+    @Transactional(readOnly = true)
+    public long streamAll(Consumer<Item> consumer) {
+        long count = 0;
+        try (Stream<Item> items = itemRepository.streamAll()) {
+            Iterator<Item> iterator = items.iterator();
+            while (iterator.hasNext()) {
+                Item item = iterator.next();
+                consumer.accept(item);
+                entityManager.detach(item);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Keyset (seek) pagination: returns up to limit items following the position encoded in
+     * the continuation token (or the first page when the token is null).
+     * One extra row is fetched to tell whether another page exists, so no empty trailing page
+     * is ever handed out.
+     * Throws IllegalArgumentException for malformed tokens.
+     */
+    public ItemPage findPage(String afterToken, int limit) {
+        return findPage(afterToken, limit, null);
+    }
+
+    /**
+     * Same as findPage(afterToken, limit), restricted to items with the given status when it is
+     * not null.
+     */
+    public ItemPage findPage(String afterToken, int limit, ItemStatus status) {
+        Long after = afterToken == null ? Long.MIN_VALUE : decodePageToken(afterToken);
+        Pageable pageable = Pageable.ofSize(limit + 1);
+        List<Item> rows = status == null
+                ? itemRepository.findPageAfter(after, pageable)
+                : itemRepository.findPageByStatusAfter(status, after, pageable);
+        if (rows.size() <= limit) {
+            return new ItemPage(rows, null);
+        }
+        List<Item> items = rows.subList(0, limit);
+        return new ItemPage(items, encodePageToken(items.get(limit - 1).getId()));
+    }
+
+    /**
+     * Sparse-fieldset variant of findAll(): every item, reduced to the requested fields and
+     * read as plain column values instead of entities.
+     */
+    public List<Map<String, Object>> findAllFields(Set<ItemField> fields) {
+        return itemRepository.findFieldsAfter(fields, null, Long.MIN_VALUE, Pageable.unpaged());
+    }
+
+    /**
+     * Sparse-fieldset variant of findPage(afterToken, limit, status); tokens are interchangeable
+     * between the two.
+     */
+    public ItemFieldsPage findFieldsPage(String afterToken, int limit, ItemStatus status, Set<ItemField> fields) {
+        Long after = afterToken == null ? Long.MIN_VALUE : decodePageToken(afterToken);
+        List<Map<String, Object>> rows = itemRepository.findFieldsAfter(fields, status, after, Pageable.ofSize(limit + 1));
+        if (rows.size() <= limit) {
+            return new ItemFieldsPage(rows, null);
+        }
+        List<Map<String, Object>> items = rows.subList(0, limit);
+        return new ItemFieldsPage(items, encodePageToken((Long) items.get(limit - 1).get(ItemField.ID.property())));
+    }
+
+    static String encodePageToken(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PAGE_TOKEN_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decodePageToken(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PAGE_TOKEN_PREFIX)) {
+                throw new IllegalArgumentException("Unsupported continuation token: " + token);
+            }
+            return Long.valueOf(decoded.substring(PAGE_TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 decoding errors are both IllegalArgumentExceptions
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+    }
+
+    /**
+     * Read-through lookup: served from the item cache when possible, otherwise loaded from the
+     * repository and cached. Missing items are not cached, so a later insert is seen immediately.
+     */
     public Optional<Item> findById(Long id) {
-        Optional<Item> item = itemRepository.findById(id);
+        Optional<Item> item = Optional.ofNullable(itemCache.get(id, key -> itemRepository.findById(key).orElse(null)));
         if (item.isPresent()) {
-            log.info("Item with ID: {} found.", id);
+            lookupLog.getLogger().debug("Item with ID: {} found.", id);
+            lookupLog.count("found");
         } else {
-            log.warn("Item with ID: {} not found.", id);
+            lookupLog.getLogger().debug("Item with ID: {} not found.", id);
+            lookupLog.count("missing");
         }
         return item;
     }
 
+    /**
+     * Current version of the item, for answering conditional requests without loading it:
+     * taken from the item cache when possible, otherwise read as a single column.
+     */
+    public Optional<Long> findVersion(Long id) {
+        Item cached = itemCache.getIfPresent(id);
+        return cached != null ? Optional.ofNullable(cached.getVersion()) : itemRepository.findVersionById(id);
+    }
+
+    /**
+     * Inserts or updates the item. Updating an existing item to a status it cannot reach from
+     * its current one throws IllegalStateException; the current status is read from the
+     * database, not from the cache, so a stale or shared cached instance cannot bypass the check.
+     */
     public Item save(Item item) {
-        return itemRepository.save(item);
+        Optional<ItemStatus> current = item.getId() == null ? Optional.empty()
+                : itemRepository.findStatusById(item.getId());
+        current.ifPresent(status -> requireTransition(item.getId(), status, item.getStatus()));
+        Item savedItem = itemRepository.save(item);
+        itemCache.put(savedItem.getId(), savedItem);
+        eventPublisher.publishEvent(ItemChangeEvent.of(
+                current.isPresent() ? ItemChangeType.UPDATED : ItemChangeType.CREATED, List.of(savedItem)));
+        return savedItem;
     }
 
     public void deleteById(Long id) {
@@ -69,6 +278,87 @@ public class ItemService {
             throw new NoSuchElementException("Item with ID " + id + " not found");
         }
         itemRepository.deleteById(id);
+        itemCache.invalidate(id);
+        eventPublisher.publishEvent(ItemChangeEvent.ofIds(ItemChangeType.DELETED, List.of(id)));
+    }
+
+    /**
+     * Overwrites the editable fields of an existing item with one conditional UPDATE, instead of
+     * reading the entity and merging it. With an expected version (from If-Match) nothing else
+     * is executed; without one the current version is read first, so a concurrent writer still
+     * makes the update fail instead of being silently overwritten.
+     * Returns the item as stored, with its new version. When no row was updated, a single
+     * lookup tells the reason apart: NoSuchElementException if the item does not exist,
+     * OptimisticLockingFailureException if its version differs, or IllegalStateException if its
+     * status cannot move to the requested one.
+     * A status change still buffered for the item is written first, so the update neither
+     * starts from a status that is about to change nor gets overwritten by the buffered change.
+     */
+    public Item update(Long id, Item item, Long expectedVersion) {
+        if (writeBehind.pendingStatus(id).isPresent()) {
+            writeBehind.flush();
+        }
+        Long version = expectedVersion != null ? expectedVersion : itemRepository.findVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Item with ID " + id + " not found"));
+        int updated = itemRepository.updateIfVersionMatches(id, version, item.getName(), item.getDescription(),
+                item.getStatus(), item.getEmail(), ItemStatus.sourcesOf(item.getStatus()));
+        if (updated == 0) {
+            Item current = itemRepository.findById(id)
+                    .orElseThrow(() -> new NoSuchElementException("Item with ID " + id + " not found"));
+            if (!version.equals(current.getVersion())) {
+                log.warn("Update of item with ID: {} expected version {} but found {}.", id, version, current.getVersion());
+                throw new OptimisticLockingFailureException("Item with ID " + id + " has version "
+                        + current.getVersion() + ", not " + version);
+            }
+            requireTransition(id, current.getStatus(), item.getStatus());
+            // the row matched on the re-read, so it changed back in between; report it as a conflict
+            throw new OptimisticLockingFailureException("Item with ID " + id + " was modified concurrently");
+        }
+        item.setId(id);
+        item.setVersion(version + 1);
+        itemCache.put(id, item);
+        eventPublisher.publishEvent(ItemChangeEvent.of(ItemChangeType.UPDATED, List.of(item)));
+        return item;
+    }
+
+    /**
+     * Moves an item to another status. The current status is the one in the database, or the
+     * one still buffered for the item; an illegal transition throws IllegalStateException and a
+     * missing item NoSuchElementException.
+     * With write-behind enabled the change is buffered and true is returned; otherwise it is
+     * written at once with an UPDATE guarded by status and version (OptimisticLockingFailureException
+     * if the item changed in between) and false is returned.
+     */
+    public boolean updateStatus(Long id, ItemStatus status) {
+        ItemRepository.StatusAndVersion stored = itemRepository.findStatusAndVersionById(id)
+                .orElseThrow(() -> new NoSuchElementException("Item with ID " + id + " not found"));
+        ItemStatus current = writeBehind.pendingStatus(id).orElse(stored.getStatus());
+        requireTransition(id, current, status);
+        if (writeBehind.isEnabled()) {
+            writeBehind.submit(id, current, stored.getVersion(), status);
+            return true;
+        }
+        if (current != status) {
+            if (itemRepository.updateStatuses(List.of(id), current, status, stored.getVersion()) == 0) {
+                throw new OptimisticLockingFailureException("Item with ID " + id + " was modified concurrently");
+            }
+            itemCache.invalidate(id);
+            eventPublisher.publishEvent(ItemChangeEvent.ofIds(
+                    status == ItemStatus.PROCESSED ? ItemChangeType.PROCESSED : ItemChangeType.UPDATED, List.of(id)));
+        }
+        return false;
+    }
+
+    private static void requireTransition(Long id, ItemStatus from, ItemStatus to) {
+        if (from == null || !from.canTransitionTo(to)) {
+            throw new IllegalStateException("Item with ID " + id + " cannot move from " + from + " to " + to);
+        }
+    }
+
+    public ItemCacheStats cacheStats() {
+        CacheStats stats = itemCache.stats();
+        return new ItemCacheStats(itemCache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.evictionCount(), stats.hitRate());
     }
 
 
@@ -92,33 +382,265 @@ public class ItemService {
     @Async
     public CompletableFuture<List<Item>> processItemsAsync() throws InterruptedException {
 
-        List<Long> itemIds = itemRepository.findAllIds();
         //Simulate processing delay to ensure the items are processed asynchronously
         Thread.sleep(2000);
-        log.info("Found {} items to process.", itemIds.size());
-        List<CompletableFuture<Item>> futures = new ArrayList<>();
-
-        for (Long id : itemIds) {
-            CompletableFuture<Item> future = CompletableFuture.supplyAsync(() -> {
-                try {
-                    Item item = itemRepository.findById(id).orElseThrow();
-                    item.setStatus("PROCESSED");
-                    itemRepository.save(item);
-                    log.info("Successfully processed item with ID: {}", id);
+        Queue<Item> processedItems = new ConcurrentLinkedQueue<>();
+
+        return processItems(processedItems::add)
+                .thenApply(result -> {
+                    log.info("Processed {} items, {} failed.", result.getProcessed(), result.getFailed());
+                    return List.copyOf(processedItems);
+                });
+    }
+
+    /**
+     * Backpressured form of the per-item processing: IDs are pulled in keyset pages of
+     * items.processing.page-size and at most items.processing.max-in-flight items are processed
+     * at once. Each processed item is handed to the sink as soon as it completes and is not
+     * retained afterwards, so heap use is bounded by the window rather than by the table size.
+     * The returned future completes, without blocking any thread, once every item has been
+     * attempted.
+     */
+    public CompletableFuture<ProcessingResult> processItems(Consumer<Item> sink) {
+        return processItems(sink, () -> false);
+    }
+
+    /**
+     * Same as processItems(sink), but stops taking new items once cancelled returns true.
+     */
+    public CompletableFuture<ProcessingResult> processItems(Consumer<Item> sink, BooleanSupplier cancelled) {
+        return processItems(sink, cancelled, Long.MIN_VALUE, safePoint -> { });
+    }
+
+    /**
+     * Resumable form of processItems(sink, cancelled): only items with IDs above startAfter are
+     * visited, and progress receives, after every completed item, the ID up to which every item
+     * has been attempted. Persisting that value and passing it back in after a restart resumes
+     * the run without skipping anything; the items between the saved point and the crash are
+     * visited again, which is harmless since processing an item is idempotent.
+     */
+    public CompletableFuture<ProcessingResult> processItems(Consumer<Item> sink, BooleanSupplier cancelled,
+                                                           long startAfter, LongConsumer progress) {
+        AtomicLong retried = new AtomicLong();
+        return new ItemProcessingPipeline(
+                after -> itemRepository.findIdsAfter(Math.max(after, startAfter), Pageable.ofSize(processingPageSize)),
+                id -> processItem(id, retried), sink, executor, processingMaxInFlight, cancelled, progress).start()
+                .thenApply(result -> withRetried(result, retried));
+    }
+
+    /**
+     * Bounded form of processItems(sink, cancelled, startAfter, progress): only items with IDs
+     * in (startAfter, lastId] are visited. Partitioned runs process their chunks this way.
+     */
+    public CompletableFuture<ProcessingResult> processItemRange(Consumer<Item> sink, BooleanSupplier cancelled,
+                                                               long startAfter, long lastId, LongConsumer progress) {
+        AtomicLong retried = new AtomicLong();
+        return new ItemProcessingPipeline(
+                after -> itemRepository.findIdsInRangeAfter(Math.max(after, startAfter), lastId,
+                        Pageable.ofSize(processingPageSize)),
+                id -> processItem(id, retried), sink, executor, processingMaxInFlight, cancelled, progress).start()
+                .thenApply(result -> withRetried(result, retried));
+    }
+
+    /**
+     * Retry run over the failed subset only: the items recorded by ProcessingFailureService,
+     * all of them or, with dueOnly, those whose backoff has elapsed. At most
+     * items.retry.max-concurrency retries run at once, so a backlog of failures cannot crowd
+     * out regular processing.
+     */
+    public CompletableFuture<ProcessingResult> retryFailedItems(Consumer<Item> sink, BooleanSupplier cancelled,
+                                                               boolean dueOnly) {
+        AtomicLong retried = new AtomicLong();
+        return new ItemProcessingPipeline(
+                after -> failureService.findItemIdsAfter(after, processingPageSize, dueOnly),
+                id -> processItem(id, retried), sink, executor, failureService.maxConcurrency(), cancelled,
+                safePoint -> { }).start()
+                .thenApply(result -> withRetried(result, retried));
+    }
+
+    private static ProcessingResult withRetried(ProcessingResult result, AtomicLong retried) {
+        return new ProcessingResult(result.getProcessed(), result.getFailed(), retried.get());
+    }
+
+    /**
+     * Incremental form of processItems(sink, cancelled): only items above the high-water mark
+     * that are still NEW are visited, so a repeat run costs O(new items) instead of
+     * O(table). Once a run completes without being cancelled, the mark advances to the last ID
+     * it scanned, or to just below the lowest ID that failed, so failed items are retried next
+     * time. This relies on item_seq handing out IDs in increasing order; items reopened as NEW
+     * below the mark are only picked up again by a full run.
+     */
+    public CompletableFuture<ProcessingResult> processNewItems(Consumer<Item> sink, BooleanSupplier cancelled) {
+        long from = processedHighWaterMark.get();
+        AtomicLong lastScanned = new AtomicLong(from);
+        AtomicLong lowestFailed = new AtomicLong(Long.MAX_VALUE);
+        AtomicLong retried = new AtomicLong();
+        return new ItemProcessingPipeline(
+                after -> {
+                    List<Long> ids = itemRepository.findIdsByStatusAfter(ItemStatus.NEW, Math.max(after, from),
+                            Pageable.ofSize(processingPageSize));
+                    if (!ids.isEmpty()) {
+                        lastScanned.set(ids.get(ids.size() - 1));
+                    }
+                    return ids;
+                },
+                id -> processItem(id, retried).thenApply(item -> {
+                    if (item == null) {
+                        lowestFailed.accumulateAndGet(id, Math::min);
+                    }
                     return item;
-                } catch (Exception e) {
-                    log.error("Error processing item with ID: {}", id, e);
-                    return null;
-                }
-            }, executor);
-            futures.add(future);
-        }
-
-        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
-                .thenApply(v -> futures.stream()
-                        .map(CompletableFuture::join)
-                        .filter(Objects::nonNull)
-                        .toList());
+                }),
+                sink, executor, processingMaxInFlight, cancelled, safePoint -> { }).start()
+                .whenComplete((result, error) -> {
+                    if (error == null && !cancelled.getAsBoolean()) {
+                        long mark = processedHighWaterMark.accumulateAndGet(
+                                Math.min(lastScanned.get(), lowestFailed.get() - 1), Math::max);
+                        log.info("Processing high-water mark is now {}.", mark);
+                    }
+                })
+                .thenApply(result -> withRetried(result, retried));
+    }
+
+    public long processedHighWaterMark() {
+        return processedHighWaterMark.get();
+    }
+
+    /**
+     * Loads, processes, marks and saves a single item; the future completes with the item, or
+     * with null when it failed. Failures, including items whose state does not allow processing,
+     * are logged.
+     * Between loading and saving, the item passes through the ItemProcessingStages, which may
+     * hand it to other executors; without stages it is marked and saved right away.
+     * Processing is idempotent: an item that is PROCESSED already is reported as processed without
+     * being written again, and the save is version-checked, so of two concurrent attempts only one
+     * performs the NEW -> PROCESSED transition (the other fails and is retried, finding the item
+     * done). Resumed and retried runs therefore transition every item exactly once.
+     * With write-behind enabled and no stages the transition is buffered instead of saved; its
+     * flush is guarded by the status the item was read with, which keeps the exactly-once
+     * property. Stages may change more than the status, so their items are always saved.
+     * Transient failures are recorded for retry. Once an earlier failure is processed, or turns
+     * out to be permanent (the item is gone, can no longer become PROCESSED or was rejected by a
+     * stage), its record is dropped; retried counts the earlier failures attempted.
+     */
+    private CompletableFuture<Item> processItem(Long id, AtomicLong retried) {
+        long start = System.nanoTime();
+        boolean retry = failureService.isPending(id);
+        if (retry) {
+            retried.incrementAndGet();
+        }
+        CompletableFuture<Item> processed;
+        try {
+            processed = loadAndProcess(id);
+        } catch (Exception e) {
+            processed = CompletableFuture.failedFuture(e);
+        }
+        return processed.handle((item, error) -> completeProcessing(id, item, error, start, retry));
+    }
+
+    private CompletableFuture<Item> loadAndProcess(Long id) {
+        Item item = itemRepository.findById(id).orElseThrow();
+        ItemStatus current = writeBehind.pendingStatus(id).orElse(item.getStatus());
+        if (current == ItemStatus.PROCESSED) {
+            item.setStatus(current);
+            processingLog.getLogger().debug("Item with ID: {} is processed already.", id);
+            processingLog.count("processed already");
+            return CompletableFuture.completedFuture(item);
+        }
+        requireTransition(id, current, ItemStatus.PROCESSED);
+        if (stages.isEmpty()) {
+            return CompletableFuture.completedFuture(markProcessed(item, current));
+        }
+        // back to the executor meant for JDBC calls, whichever stage ran last
+        return stages.process(item).thenApplyAsync(staged -> markProcessed(staged, current), executor);
+    }
+
+    private Item markProcessed(Item item, ItemStatus current) {
+        Long id = item.getId();
+        if (writeBehind.isEnabled() && stages.isEmpty()) {
+            writeBehind.submit(id, current, item.getVersion(), ItemStatus.PROCESSED);
+            item.setStatus(ItemStatus.PROCESSED);
+            processingLog.getLogger().debug("Processed item with ID: {}; the change is buffered.", id);
+            processingLog.count("buffered");
+            return item;
+        }
+        item.setStatus(ItemStatus.PROCESSED);
+        Item saved = itemRepository.save(item);
+        itemCache.put(id, saved);
+        eventPublisher.publishEvent(ItemChangeEvent.of(ItemChangeType.PROCESSED, List.of(saved)));
+        processingLog.getLogger().debug("Successfully processed item with ID: {}", id);
+        processingLog.count("saved");
+        return saved;
+    }
+
+    private Item completeProcessing(Long id, Item item, Throwable error, long start, boolean retry) {
+        if (error == null) {
+            itemProcessedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (retry) {
+                failureService.resolve(id);
+            }
+            return item;
+        }
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        itemFailedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (cause instanceof NoSuchElementException || cause instanceof IllegalStateException
+                || cause instanceof IllegalArgumentException) {
+            log.error("Item with ID: {} cannot be processed: {}", id, cause.getMessage());
+            processingLog.count("rejected");
+            if (retry) {
+                failureService.resolve(id);
+            }
+            return null;
+        }
+        log.error("Error processing item with ID: {}", id, cause);
+        processingLog.count("failed");
+        try {
+            failureService.recordFailure(id, cause);
+        } catch (RuntimeException recordError) {
+            log.error("Could not record the failure of item with ID: {} for retry", id, recordError);
+        }
+        return null;
+    }
+
+    /**
+     * Set-based alternative to processItemsAsync(), run on the calling thread.
+     * The per-item path costs 2N+1 round trips and N transactions; here the IDs of items that
+     * may become PROCESSED are walked in keyset pages of chunkSize and every page is marked with
+     * a single UPDATE ... WHERE id IN, so each chunk costs two statements and one transaction.
+     * The page is read with its rows locked, so the update changes exactly those rows, and their
+     * IDs are handed to the sink once the chunk has committed. Entities are never loaded and no
+     * more than one chunk of IDs is held at a time. If the sink throws, the run stops after
+     * that chunk and the exception propagates. Returns the number of items processed.
+     */
+    public long processItemsInBulk(int chunkSize, Consumer<List<Long>> sink) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive, was " + chunkSize);
+        }
+
+        long processed = 0;
+        Long lastId = Long.MIN_VALUE;
+        List<Long> chunk;
+        while (!(chunk = markChunkProcessed(lastId, chunkSize)).isEmpty()) {
+            lastId = chunk.get(chunk.size() - 1);
+            itemCache.invalidateAll(chunk);
+            eventPublisher.publishEvent(ItemChangeEvent.ofIds(ItemChangeType.PROCESSED, chunk));
+            log.debug("Marked {} items in ID range [{}, {}] as processed.", chunk.size(), chunk.get(0), lastId);
+            processed += chunk.size();
+            sink.accept(chunk);
+        }
+
+        log.info("Bulk processed {} items in chunks of {}.", processed, chunkSize);
+        return processed;
+    }
+
+    private List<Long> markChunkProcessed(Long after, int chunkSize) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = itemRepository.lockIdsByStatusInAfter(PROCESSABLE_STATUSES, after,
+                    Pageable.ofSize(chunkSize));
+            if (!ids.isEmpty()) {
+                itemRepository.updateStatusOfIds(ItemStatus.PROCESSED, PROCESSABLE_STATUSES, ids);
+            }
+            return ids;
+        });
     }
 
 }
@@ -0,0 +1,45 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.ItemChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Change counter for the item table as a whole, used to answer conditional list requests
+ * without querying: every ItemChangeEvent the services publish after a write increments it,
+ * so a list read after an increment can only be as new as or newer than the counter value.
+ * The counter lives in memory, so the ETag also carries the startup time of this instance;
+ * ETags handed out before a restart therefore never match afterwards. Writes that bypass the
+ * services (e.g. manual SQL) are not seen.
+ * The Last-Modified date has HTTP's one-second resolution; clients that need every change
+ * should use the ETag, which takes precedence when both are sent.
+ */
+@Component
+public class ItemTableVersion {
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = System.currentTimeMillis();
+
+    @EventListener
+    public void onItemChange(ItemChangeEvent event) {
+        increment();
+    }
+
+    public void increment() {
+        lastModified = System.currentTimeMillis();
+        version.incrementAndGet();
+    }
+
+    public String eTag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * Time of the last increment (or of startup), in epoch milliseconds.
+     */
+    public long lastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,274 @@
+package com.siemens.internship.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.repository.ItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind for status changes (items.write-behind.enabled).
+ * Instead of one save and commit per change, changes are kept in memory keyed by item ID, so
+ * repeated changes of the same item coalesce into one, and are written in transactions of up to
+ * items.write-behind.batch-size items: every transaction issues one UPDATE ... WHERE id IN per
+ * source status, target status and version (items changed the same way mostly share a few
+ * versions). A flush runs every items.write-behind.max-delay and as soon
+ * as items.write-behind.max-pending items are waiting; these two settings bound what a crash
+ * can lose. The remaining changes are flushed on shutdown, after the web server has stopped
+ * taking requests and before the taskExecutor is torn down; from then on changes are written
+ * through at once.
+ * Each write is guarded by the status and version the item had when it was first buffered, so a
+ * change that another writer has overtaken in the meantime (a PUT of the item, a bulk run, or a
+ * delete) is dropped instead of overwriting it; such drops are counted and logged. Readers see a buffered change once
+ * it is flushed. While a flush is writing, its changes stay visible through pendingStatus(), so
+ * a change submitted meanwhile starts from the status being written rather than the one still
+ * in the database.
+ */
+@Component
+@Slf4j
+public class ItemWriteBehindBuffer implements SmartLifecycle {
+    private final ItemRepository itemRepository;
+    private final Cache<Long, Item> itemCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final int maxPending;
+    private final int batchSize;
+    private final Object lock = new Object();
+    // guarded by lock
+    private Map<Long, PendingStatus> pending = new HashMap<>();
+    // the changes the running flush is writing, guarded by lock
+    private Map<Long, PendingStatus> inFlight = Map.of();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private volatile boolean running;
+    private final Counter coalesced;
+    private final Counter dropped;
+    private final Timer flushes;
+
+    @Autowired
+    public ItemWriteBehindBuffer(ItemRepository itemRepository, @Qualifier("itemCache") Cache<Long, Item> itemCache,
+                                 TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher,
+                                 @Value("${items.write-behind.enabled:false}") boolean enabled,
+                                 @Value("${items.write-behind.max-pending:10000}") int maxPending,
+                                 @Value("${items.write-behind.batch-size:1000}") int batchSize,
+                                 MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.itemCache = itemCache;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.maxPending = maxPending;
+        this.batchSize = batchSize;
+        Gauge.builder("items.write-behind.pending", this, ItemWriteBehindBuffer::pendingCount)
+                .description("Status changes waiting to be written")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("items.write-behind.coalesced")
+                .description("Status changes merged into one already waiting for the same item")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("items.write-behind.dropped")
+                .description("Buffered status changes overtaken by another write before they were flushed")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("items.write-behind.flush")
+                .description("Flushes of buffered status changes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * A change of an item from the status and version stored in the database to a new status.
+     */
+    private record PendingStatus(ItemStatus from, ItemStatus to, Long version) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Buffers the change of an item from status from (its current status, including any change
+     * still buffered for it) to status to; version is the item's version as read from the
+     * database. If a change of the item is waiting, the new one is merged into it; if one is being
+     * written, the new one starts from the status and version that write leaves behind. The caller
+     * has checked the transition. Flushes right away once max-pending items are waiting, or when
+     * the buffer has been stopped already.
+     */
+    public void submit(Long id, ItemStatus from, Long version, ItemStatus to) {
+        int size;
+        synchronized (lock) {
+            PendingStatus previous = pending.get(id);
+            PendingStatus writing = inFlight.get(id);
+            if (previous != null) {
+                pending.put(id, new PendingStatus(previous.from(), to, previous.version()));
+                coalesced.increment();
+            } else if (writing != null && writing.from() != writing.to()) {
+                pending.put(id, new PendingStatus(writing.to(), to, writing.version() + 1));
+            } else {
+                pending.put(id, new PendingStatus(from, to, writing != null ? writing.version() : version));
+            }
+            size = pending.size();
+        }
+        itemCache.invalidate(id);
+        if (size >= maxPending || !running) {
+            flush();
+        }
+    }
+
+    /**
+     * The status an item will have once its buffered change is written, if one is waiting or
+     * being written.
+     */
+    public Optional<ItemStatus> pendingStatus(Long id) {
+        synchronized (lock) {
+            PendingStatus change = pending.get(id);
+            if (change == null) {
+                change = inFlight.get(id);
+            }
+            return change != null ? Optional.of(change.to()) : Optional.empty();
+        }
+    }
+
+    public int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${items.write-behind.max-delay:PT1S}",
+            initialDelayString = "${items.write-behind.max-delay:PT1S}")
+    public void flushPeriodically() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes every buffered change and returns the number of items changed. Only one flush runs
+     * at a time; submitters that trigger one wait for it, which holds the buffer to max-pending.
+     * If a transaction fails, its changes are put back, unless the item has been changed again
+     * meanwhile, and written by a later flush.
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            Map<Long, PendingStatus> batch;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return 0;
+                }
+                batch = pending;
+                pending = new HashMap<>();
+                inFlight = batch;
+            }
+            try {
+                return flushes.record(() -> write(batch));
+            } finally {
+                // written, dropped or requeued into pending by now
+                synchronized (lock) {
+                    inFlight = Map.of();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int write(Map<Long, PendingStatus> batch) {
+        List<Map.Entry<Long, PendingStatus>> entries = new ArrayList<>(batch.entrySet());
+        int written = 0;
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<Long, PendingStatus>> chunk = entries.subList(from, Math.min(entries.size(), from + batchSize));
+            Map<PendingStatus, List<Long>> byChange = new HashMap<>();
+            for (Map.Entry<Long, PendingStatus> entry : chunk) {
+                // changed and changed back before the flush; nothing to write
+                if (entry.getValue().from() != entry.getValue().to()) {
+                    byChange.computeIfAbsent(entry.getValue(), change -> new ArrayList<>()).add(entry.getKey());
+                }
+            }
+            try {
+                Integer updated = transactionTemplate.execute(status -> byChange.entrySet().stream()
+                        .mapToInt(group -> itemRepository.updateStatuses(group.getValue(), group.getKey().from(),
+                                group.getKey().to(), group.getKey().version()))
+                        .sum());
+                int expected = byChange.values().stream().mapToInt(List::size).sum();
+                written += updated;
+                if (updated < expected) {
+                    dropped.increment(expected - updated);
+                    log.warn("{} buffered status changes were overtaken by other writes and dropped.", expected - updated);
+                }
+            } catch (RuntimeException e) {
+                log.error("Could not write {} buffered status changes; they will be retried.", chunk.size(), e);
+                requeue(chunk);
+                continue;
+            }
+            byChange.forEach((change, ids) -> {
+                itemCache.invalidateAll(ids);
+                eventPublisher.publishEvent(ItemChangeEvent.ofIds(
+                        change.to() == ItemStatus.PROCESSED ? ItemChangeType.PROCESSED : ItemChangeType.UPDATED, ids));
+            });
+        }
+        log.debug("Flushed {} buffered status changes in {} transactions.", written,
+                (entries.size() + batchSize - 1) / batchSize);
+        return written;
+    }
+
+    private void requeue(List<Map.Entry<Long, PendingStatus>> failed) {
+        synchronized (lock) {
+            for (Map.Entry<Long, PendingStatus> entry : failed) {
+                // a change submitted since then still starts from the status in the database
+                pending.merge(entry.getKey(), entry.getValue(),
+                        (newer, older) -> new PendingStatus(older.from(), newer.to(), older.version()));
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    /**
+     * Stops buffering and writes out whatever is still waiting.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (enabled) {
+            int written = flush();
+            log.info("Flushed {} buffered status changes on shutdown.", written);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops after the web server, so no request can buffer a change after the final flush, and
+     * before the search index, so the flushed changes still reach it.
+     */
+    @Override
+    public int getPhase() {
+        return 1;
+    }
+}
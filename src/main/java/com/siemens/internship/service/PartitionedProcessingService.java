@@ -0,0 +1,335 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.PartitionedRunStatus;
+import com.siemens.internship.model.ProcessingChunk;
+import com.siemens.internship.model.ProcessingChunkState;
+import com.siemens.internship.model.ProcessingResult;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingChunkRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processing runs shared by every node that uses the same database.
+ * Starting a run splits the item ID range into chunks of items.partition.chunk-size IDs, stored
+ * as rows of processing_chunk. Every node polls the table every items.partition.poll-interval and claims
+ * chunks while it works on fewer than items.partition.max-chunks-per-node, using a conditional
+ * UPDATE that only one node can win (a portable form of SELECT ... FOR UPDATE SKIP LOCKED), so
+ * the nodes work on disjoint chunks. Work is pulled, so faster or newly started nodes simply
+ * take more chunks, and throughput grows with the number of nodes until the database saturates.
+ * A claim is a lease of items.partition.lease-duration, renewed every poll interval together with
+ * the chunk's safe point by a thread of its own, so a busy scheduler cannot let leases run out.
+ * A chunk whose node stops renewing (crashed, paused or partitioned off) is claimed by another
+ * node once its lease has expired and continued after that safe point. A node stops taking items
+ * of a chunk as soon as a renewal finds the lease taken, or its lease runs out without a
+ * successful renewal. Items seen twice this way are not transitioned twice, since processing is
+ * idempotent. Every claim counts as an attempt, except those handed back on shutdown; a chunk
+ * whose run fails on its items.partition.max-attempts-th attempt, or that is claimed again after
+ * that many attempts (its nodes kept dying or losing the lease), is marked FAILED, so one bad
+ * chunk cannot keep a run from ending. Leases compare the clocks of different nodes, so the lease duration has to exceed
+ * their skew comfortably.
+ * Only the processing is shared. The item cache, the ETag version (ItemTableVersion), the search
+ * index, the change feed and the high-water mark of incremental runs live in each node and
+ * follow only that node's writes, so several nodes may run chunks, but the API has to be served
+ * by a single node to stay consistent.
+ */
+@Service
+@Slf4j
+public class PartitionedProcessingService {
+    // claimable chunks fetched per free slot; nodes pick among them at random
+    private static final int CANDIDATES_PER_SLOT = 4;
+
+    private final ItemRepository itemRepository;
+    private final ProcessingChunkRepository chunkRepository;
+    private final ItemService itemService;
+    private final String nodeId;
+    private final boolean workerEnabled;
+    private final int chunkSize;
+    private final int maxChunks;
+    private final int maxAttempts;
+    private final Duration leaseDuration;
+    private final Duration renewInterval;
+    private final ScheduledExecutorService leaseRenewal;
+    private final Map<Long, ActiveChunk> active = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+    private final Counter completedChunks;
+    private final Counter lostChunks;
+    private final Counter failedChunks;
+
+    @Autowired
+    public PartitionedProcessingService(ItemRepository itemRepository, ProcessingChunkRepository chunkRepository,
+                                        ItemService itemService,
+                                        @Value("${items.partition.node-id:}") String nodeId,
+                                        @Value("${items.partition.worker-enabled:true}") boolean workerEnabled,
+                                        @Value("${items.partition.chunk-size:1000}") int chunkSize,
+                                        @Value("${items.partition.max-chunks-per-node:2}") int maxChunks,
+                                        @Value("${items.partition.lease-duration:30s}") Duration leaseDuration,
+                                        @Value("${items.partition.poll-interval:PT2S}") Duration renewInterval,
+                                        @Value("${items.partition.max-attempts:3}") int maxAttempts,
+                                        MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        this.chunkRepository = chunkRepository;
+        this.itemService = itemService;
+        this.nodeId = nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.workerEnabled = workerEnabled;
+        this.chunkSize = chunkSize;
+        this.maxChunks = maxChunks;
+        this.maxAttempts = maxAttempts;
+        this.leaseDuration = leaseDuration;
+        this.renewInterval = renewInterval;
+        this.leaseRenewal = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "Lease-renewal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("items.partition.chunks.active", active, Map::size)
+                .description("Chunks of partitioned runs this node is working on")
+                .register(meterRegistry);
+        this.completedChunks = chunkCounter(meterRegistry, "completed");
+        this.lostChunks = chunkCounter(meterRegistry, "lost");
+        this.failedChunks = chunkCounter(meterRegistry, "failed");
+        log.info("Partitioned processing node {} ({}).", this.nodeId, workerEnabled ? "worker" : "no worker");
+    }
+
+    private static Counter chunkCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("items.partition.chunks")
+                .description("Chunks of partitioned runs finished by this node")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    @PostConstruct
+    void startLeaseRenewal() {
+        if (workerEnabled) {
+            leaseRenewal.scheduleWithFixedDelay(this::renewLeases, renewInterval.toMillis(), renewInterval.toMillis(),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Splits the range from the lowest to the highest item ID into consecutive chunks of
+     * chunk-size IDs for all nodes to pick up. Only the two ends of the range are read, so
+     * starting a run costs the same for any number of items; gaps in the ID sequence just leave
+     * some chunks with fewer items. Items created later within the range are included; those
+     * above it are left to the next run.
+     */
+    @Transactional
+    public PartitionedRunStatus startRun() {
+        String runId = UUID.randomUUID().toString();
+        List<ProcessingChunk> chunks = new ArrayList<>();
+        ItemRepository.IdRange range = itemRepository.findIdRange();
+        if (range.getFirst() != null) {
+            for (long first = range.getFirst(); first <= range.getLast(); first += chunkSize) {
+                long last = Math.min(range.getLast(), first + chunkSize - 1);
+                chunks.add(new ProcessingChunk(null, runId, first, last, ProcessingChunkState.PENDING, null, null,
+                        null, 0, 0, 0));
+                if (last == range.getLast()) {
+                    break;
+                }
+            }
+        }
+        chunkRepository.saveAll(chunks);
+        log.info("Partitioned processing run {} started with {} chunks.", runId, chunks.size());
+        return new PartitionedRunStatus(runId, chunks.size(), chunks.size(), 0, 0, 0, 0, 0, 0);
+    }
+
+    public Optional<PartitionedRunStatus> findRun(String runId) {
+        List<ProcessingChunkRepository.StateSummary> summaries = chunkRepository.summarize(runId);
+        if (summaries.isEmpty()) {
+            return Optional.empty();
+        }
+        long[] chunks = new long[ProcessingChunkState.values().length];
+        long processed = 0;
+        long failed = 0;
+        for (ProcessingChunkRepository.StateSummary summary : summaries) {
+            chunks[summary.getState().ordinal()] = summary.getChunks();
+            processed += summary.getProcessed();
+            failed += summary.getFailed();
+        }
+        return Optional.of(new PartitionedRunStatus(runId, Arrays.stream(chunks).sum(),
+                chunks[ProcessingChunkState.PENDING.ordinal()], chunks[ProcessingChunkState.CLAIMED.ordinal()],
+                chunks[ProcessingChunkState.DONE.ordinal()], chunks[ProcessingChunkState.FAILED.ordinal()], processed,
+                failed, chunkRepository.countOwners(runId)));
+    }
+
+    /**
+     * Claims chunks for the free slots; their leases are renewed separately.
+     */
+    @Scheduled(fixedDelayString = "${items.partition.poll-interval:PT2S}",
+            initialDelayString = "${items.partition.poll-interval:PT2S}")
+    public void poll() {
+        if (!workerEnabled || stopping) {
+            return;
+        }
+        int free = maxChunks - active.size();
+        if (free <= 0) {
+            return;
+        }
+        Instant now = Instant.now();
+        List<Long> candidates = new ArrayList<>(chunkRepository.findClaimableIds(now,
+                Pageable.ofSize(free * CANDIDATES_PER_SLOT)));
+        // nodes polling at the same moment would otherwise all compete for the same first chunk
+        Collections.shuffle(candidates);
+        for (Long id : candidates) {
+            if (active.size() >= maxChunks) {
+                break;
+            }
+            if (chunkRepository.claim(id, nodeId, now, now.plus(leaseDuration)) == 1) {
+                chunkRepository.findById(id).ifPresent(chunk -> {
+                    if (chunk.getAttempts() > maxAttempts) {
+                        giveUp(chunk.getId(), chunk.getResumeAfter(), chunk.getAttempts() - 1);
+                    } else {
+                        process(chunk);
+                    }
+                });
+            }
+        }
+    }
+
+    private void renewLeases() {
+        Instant expiresAt = Instant.now().plus(leaseDuration);
+        for (ActiveChunk chunk : active.values()) {
+            try {
+                if (chunkRepository.renew(chunk.id, nodeId, expiresAt, chunk.safePoint.get()) == 1) {
+                    chunk.leaseExpiresAt = expiresAt;
+                } else if (active.containsKey(chunk.id) && !chunk.lost) {
+                    log.warn("Node {} lost the lease of chunk {}; another node continues it.", nodeId, chunk.id);
+                    chunk.lost = true;
+                }
+            } catch (RuntimeException e) {
+                // an exception would also cancel every later renewal
+                log.warn("Could not renew the lease of chunk {}; work on it stops at {} unless a later renewal "
+                        + "succeeds.", chunk.id, chunk.leaseExpiresAt, e);
+            }
+        }
+    }
+
+    private void process(ProcessingChunk chunk) {
+        long startAfter = chunk.getResumeAfter() != null ? chunk.getResumeAfter() : chunk.getFirstItemId() - 1;
+        ActiveChunk task = new ActiveChunk(chunk.getId(), startAfter, chunk.getLeaseExpiresAt(), chunk.getAttempts());
+        active.put(chunk.getId(), task);
+        log.info("Node {} claimed chunk {} of run {}: items ({}, {}], attempt {}.", nodeId, chunk.getId(),
+                chunk.getRunId(), startAfter, chunk.getLastItemId(), chunk.getAttempts());
+        itemService.processItemRange(item -> { }, () -> task.isLost() || stopping, startAfter, chunk.getLastItemId(),
+                        safePoint -> task.safePoint.accumulateAndGet(safePoint, Math::max))
+                .whenComplete((result, error) -> finish(task, result, error));
+    }
+
+    private void finish(ActiveChunk task, ProcessingResult result, Throwable error) {
+        active.remove(task.id);
+        try {
+            if (error != null) {
+                log.error("Chunk {} failed on node {} (attempt {}).", task.id, nodeId, task.attempts, error);
+                if (task.attempts >= maxAttempts) {
+                    giveUp(task.id, task.safePoint.get(), task.attempts);
+                } else {
+                    chunkRepository.release(task.id, nodeId, task.safePoint.get());
+                }
+            } else if (stopping) {
+                chunkRepository.handBack(task.id, nodeId, task.safePoint.get());
+            } else if (task.lost || chunkRepository.complete(task.id, nodeId, result.getProcessed(), result.getFailed()) == 0) {
+                lostChunks.increment();
+            } else {
+                completedChunks.increment();
+                log.info("Node {} completed chunk {}: {} processed, {} failed.", nodeId, task.id,
+                        result.getProcessed(), result.getFailed());
+            }
+        } catch (RuntimeException e) {
+            // the lease runs out and another node continues the chunk
+            log.error("Could not record the outcome of chunk {} on node {}.", task.id, nodeId, e);
+        }
+    }
+
+    private void giveUp(Long chunkId, Long resumeAfter, int attempts) {
+        if (chunkRepository.fail(chunkId, nodeId, resumeAfter) == 1) {
+            failedChunks.increment();
+            log.error("Chunk {} failed after {} attempts; its remaining items are left to a later run.", chunkId,
+                    attempts);
+        }
+    }
+
+    /**
+     * Hands the chunks in progress back on shutdown, so other nodes continue them right away
+     * instead of waiting for the leases to expire.
+     */
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+        leaseRenewal.shutdownNow();
+        for (ActiveChunk chunk : active.values()) {
+            try {
+                chunkRepository.handBack(chunk.id, nodeId, chunk.safePoint.get());
+            } catch (RuntimeException e) {
+                log.warn("Could not hand back chunk {}; it is continued once its lease expires.", chunk.id, e);
+            }
+        }
+    }
+
+    private static final class ActiveChunk {
+        private final Long id;
+        private final AtomicLong safePoint;
+        private final int attempts;
+        private volatile Instant leaseExpiresAt;
+        private volatile boolean lost;
+
+        private ActiveChunk(Long id, long startAfter, Instant leaseExpiresAt, int attempts) {
+            this.id = id;
+            this.safePoint = new AtomicLong(startAfter);
+            this.leaseExpiresAt = leaseExpiresAt;
+            this.attempts = attempts;
+        }
+
+        /**
+         * True once a renewal found the lease taken or the lease ran out without being renewed;
+         * checked before every item is taken.
+         */
+        private boolean isLost() {
+            if (!lost && Instant.now().isAfter(leaseExpiresAt)) {
+                log.warn("Lease of chunk {} ran out at {}; stopping work on it.", id, leaseExpiresAt);
+                lost = true;
+            }
+            return lost;
+        }
+    }
+}
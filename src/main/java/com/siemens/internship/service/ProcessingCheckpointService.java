@@ -0,0 +1,124 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.ProcessingCheckpoint;
+import com.siemens.internship.repository.ProcessingCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Persists the progress of long processing runs, so that a run interrupted by a restart, a
+ * failure or a cancellation continues where it stopped instead of starting over.
+ * Progress is written at most once per items.processing.checkpoint-interval, so a checkpoint
+ * costs one small write every few seconds rather than one per item; after a crash at most that
+ * interval of work is repeated.
+ */
+@Service
+@Slf4j
+public class ProcessingCheckpointService {
+    private final ProcessingCheckpointRepository checkpointRepository;
+    private final Duration interval;
+
+    @Autowired
+    public ProcessingCheckpointService(ProcessingCheckpointRepository checkpointRepository,
+                                       @Value("${items.processing.checkpoint-interval:5s}") Duration interval) {
+        this.checkpointRepository = checkpointRepository;
+        this.interval = interval;
+    }
+
+    /**
+     * The ID after which an unfinished run with the given name has to continue, or
+     * Long.MIN_VALUE when there is nothing to resume.
+     */
+    public long resumePoint(String name) {
+        return checkpointRepository.findById(name)
+                .map(ProcessingCheckpoint::getLastItemId)
+                .orElse(Long.MIN_VALUE);
+    }
+
+    /**
+     * Starts tracking a run that begins after startAfter.
+     */
+    public Tracker track(String name, String jobId, long startAfter) {
+        return new Tracker(name, jobId, startAfter);
+    }
+
+    /**
+     * Progress of one run; fed with the safe points of the processing pipeline.
+     */
+    public final class Tracker {
+        private final String name;
+        private final String jobId;
+        private final AtomicLong safePoint;
+        private final AtomicLong lastSaved = new AtomicLong(System.nanoTime());
+        // held while writing, so no checkpoint is written once the run has completed; not a
+        // monitor, since the writes run on pipeline callbacks that may be virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by lock
+        private boolean finished;
+
+        private Tracker(String name, String jobId, long startAfter) {
+            this.name = name;
+            this.jobId = jobId;
+            this.safePoint = new AtomicLong(startAfter);
+        }
+
+        public void progress(long id) {
+            safePoint.accumulateAndGet(id, Math::max);
+            long now = System.nanoTime();
+            long last = lastSaved.get();
+            if (now - last >= interval.toNanos() && lastSaved.compareAndSet(last, now)) {
+                save();
+            }
+        }
+
+        /**
+         * The run visited every item; the next one starts from the beginning.
+         */
+        public void complete() {
+            lock.lock();
+            try {
+                finished = true;
+                checkpointRepository.deleteById(name);
+            } finally {
+                lock.unlock();
+            }
+            log.info("Processing run {} completed; checkpoint {} cleared.", jobId, name);
+        }
+
+        /**
+         * The run stopped early; the next one resumes after the current safe point.
+         */
+        public void suspend() {
+            lock.lock();
+            try {
+                save();
+                finished = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void save() {
+            lock.lock();
+            try {
+                if (finished || safePoint.get() == Long.MIN_VALUE) {
+                    return;
+                }
+                checkpointRepository.save(new ProcessingCheckpoint(name, safePoint.get(), jobId, Instant.now()));
+                log.debug("Checkpoint {} of run {} saved at item {}.", name, jobId, safePoint.get());
+            } catch (RuntimeException e) {
+                // a missed checkpoint only means more work is repeated after a restart
+                log.warn("Could not save checkpoint {} of run {}.", name, jobId, e);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
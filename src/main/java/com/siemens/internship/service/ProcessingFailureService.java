@@ -0,0 +1,125 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.ProcessingFailure;
+import com.siemens.internship.repository.ProcessingFailureRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Durable record of items whose processing failed with a transient error, and the retry policy
+ * applied to them: the n-th failure schedules the next attempt after initial-backoff * 2^(n-1),
+ * capped at max-backoff and jittered by up to 20% so that items failing together are not
+ * retried together; after max-attempts failures the item waits for an explicit RETRY run.
+ * The IDs with a record are mirrored in memory (the failed subset is small), so the processing
+ * hot path can tell retries apart without a query per item.
+ */
+@Service
+@Slf4j
+public class ProcessingFailureService {
+    private final ProcessingFailureRepository failureRepository;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final int maxConcurrency;
+    private final Set<Long> pendingIds = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public ProcessingFailureService(ProcessingFailureRepository failureRepository,
+                                    @Value("${items.retry.max-attempts:5}") int maxAttempts,
+                                    @Value("${items.retry.initial-backoff:10s}") Duration initialBackoff,
+                                    @Value("${items.retry.max-backoff:30m}") Duration maxBackoff,
+                                    @Value("${items.retry.max-concurrency:4}") int maxConcurrency,
+                                    MeterRegistry meterRegistry) {
+        this.failureRepository = failureRepository;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.maxConcurrency = maxConcurrency;
+        Gauge.builder("items.processing.failures", pendingIds, Set::size)
+                .description("Items waiting for a processing retry")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void loadPendingIds() {
+        pendingIds.addAll(failureRepository.findAllItemIds());
+        log.info("{} items are waiting for a processing retry.", pendingIds.size());
+    }
+
+    public boolean isPending(Long itemId) {
+        return pendingIds.contains(itemId);
+    }
+
+    public boolean hasPending() {
+        return !pendingIds.isEmpty();
+    }
+
+    /**
+     * Number of retries run at once by retry runs.
+     */
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Records another failed attempt and schedules the next one.
+     */
+    @Transactional
+    public ProcessingFailure recordFailure(Long itemId, Throwable error) {
+        Instant now = Instant.now();
+        ProcessingFailure failure = failureRepository.findById(itemId)
+                .orElseGet(() -> new ProcessingFailure(itemId, 0, now, null, null, null));
+        failure.setAttempts(failure.getAttempts() + 1);
+        failure.setLastFailedAt(now);
+        failure.setNextAttemptAt(failure.getAttempts() < maxAttempts ? now.plus(backoff(failure.getAttempts())) : null);
+        String message = String.valueOf(error);
+        failure.setLastError(message.length() > ProcessingFailure.MAX_ERROR_LENGTH
+                ? message.substring(0, ProcessingFailure.MAX_ERROR_LENGTH) : message);
+        ProcessingFailure saved = failureRepository.save(failure);
+        pendingIds.add(itemId);
+        if (saved.getNextAttemptAt() == null) {
+            log.warn("Item with ID: {} failed {} times; no further automatic retries.", itemId, saved.getAttempts());
+        }
+        return saved;
+    }
+
+    /**
+     * Forgets the failure record of an item that has been processed, or that can never be.
+     */
+    public void resolve(Long itemId) {
+        if (pendingIds.remove(itemId)) {
+            failureRepository.deleteById(itemId);
+        }
+    }
+
+    /**
+     * Next page of failed item IDs after the given one; with dueOnly, only those whose next
+     * attempt is due.
+     */
+    public List<Long> findItemIdsAfter(Long after, int limit, boolean dueOnly) {
+        Pageable pageable = Pageable.ofSize(limit);
+        return dueOnly
+                ? failureRepository.findDueItemIdsAfter(Instant.now(), after, pageable)
+                : failureRepository.findItemIdsAfter(after, pageable);
+    }
+
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+        long capped = base <= 0 ? maxBackoff.toMillis() : Math.min(base, maxBackoff.toMillis());
+        return Duration.ofMillis(capped - ThreadLocalRandom.current().nextLong(capped / 5 + 1));
+    }
+}
@@ -0,0 +1,106 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.ProcessingJobState;
+import com.siemens.internship.model.ProcessingJobStatus;
+import com.siemens.internship.model.ProcessingMode;
+import com.siemens.internship.model.ProcessingResult;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory state of one processing run started through the job API.
+ * Only counters are kept, so a retained job costs the same for any number of items. The IDs of
+ * processed items are collected up to a batch at a time and then written to
+ * processing_job_result by ProcessingJobService, from where results are paged. The failed and
+ * retried counts are known once the run has finished.
+ */
+public class ProcessingJob {
+
+    @Getter
+    private final String id;
+    @Getter
+    private final ProcessingMode mode;
+    @Getter
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong processed = new AtomicLong();
+    private final int resultBatchSize;
+    // processed IDs not written yet, guarded by itself
+    private List<Long> unsavedIds;
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private volatile ProcessingJobState state = ProcessingJobState.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    ProcessingJob(String id, ProcessingMode mode, int resultBatchSize) {
+        this.id = id;
+        this.mode = mode;
+        this.resultBatchSize = resultBatchSize;
+        this.unsavedIds = new ArrayList<>(resultBatchSize);
+    }
+
+    public ProcessingJobState getState() {
+        return state;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Counts a processed item. Returns the batch of IDs to write once resultBatchSize have been
+     * collected, otherwise null.
+     */
+    List<Long> recordProcessed(Long itemId) {
+        processed.incrementAndGet();
+        synchronized (this) {
+            unsavedIds.add(itemId);
+            return unsavedIds.size() >= resultBatchSize ? takeUnsavedIds() : null;
+        }
+    }
+
+    /**
+     * Returns the IDs collected since the last batch and starts a new one.
+     */
+    synchronized List<Long> takeUnsavedIds() {
+        List<Long> batch = unsavedIds;
+        unsavedIds = new ArrayList<>(resultBatchSize);
+        return batch;
+    }
+
+    /**
+     * Asks the run to stop taking new items. Returns false if the job has already finished.
+     */
+    boolean requestCancel() {
+        if (state != ProcessingJobState.RUNNING) {
+            return false;
+        }
+        cancelRequested = true;
+        return true;
+    }
+
+    void finish(ProcessingResult result, Throwable failure) {
+        if (failure != null) {
+            error = failure.getMessage();
+            state = ProcessingJobState.FAILED;
+        } else {
+            failed.set(result.getFailed());
+            retried.set(result.getRetried());
+            state = cancelRequested ? ProcessingJobState.CANCELLED : ProcessingJobState.COMPLETED;
+        }
+        finishedAt = Instant.now();
+    }
+
+    public long processedCount() {
+        return processed.get();
+    }
+
+    public ProcessingJobStatus toStatus() {
+        return new ProcessingJobStatus(id, mode, state, processedCount(), failed.get(), retried.get(), startedAt, finishedAt, error);
+    }
+}
@@ -0,0 +1,179 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingJobResult;
+import com.siemens.internship.model.ProcessingJobState;
+import com.siemens.internship.model.ProcessingMode;
+import com.siemens.internship.model.ProcessingResult;
+import com.siemens.internship.repository.ProcessingJobResultRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Runs item processing as background jobs, so that no request thread waits for a run.
+ * At most one run is active at a time: callers starting a job while one is running join it
+ * instead of starting another one, whatever mode they asked for. Finished jobs are kept in a bounded registry; once it is full
+ * the oldest finished job is evicted.
+ * The IDs a job processed are written to processing_job_result in batches of
+ * items.jobs.result-batch-size, the rest when the run ends, and removed with the job. Rows of
+ * jobs that were still registered when the application stopped are not removed.
+ */
+@Service
+@Slf4j
+public class ProcessingJobService {
+    static final String FULL_RUN_CHECKPOINT = "full";
+
+    private final ItemService itemService;
+    private final ProcessingCheckpointService checkpointService;
+    private final ProcessingJobResultRepository resultRepository;
+    private final int maxRetainedJobs;
+    private final int resultBatchSize;
+
+    // guarded by this; insertion order gives the eviction order
+    private final Map<String, ProcessingJob> jobs = new LinkedHashMap<>();
+    private ProcessingJob activeJob;
+
+    @Autowired
+    public ProcessingJobService(ItemService itemService, ProcessingCheckpointService checkpointService,
+                                ProcessingJobResultRepository resultRepository,
+                                @Value("${items.jobs.max-retained:20}") int maxRetainedJobs,
+                                @Value("${items.jobs.result-batch-size:500}") int resultBatchSize) {
+        this.itemService = itemService;
+        this.checkpointService = checkpointService;
+        this.resultRepository = resultRepository;
+        this.maxRetainedJobs = maxRetainedJobs;
+        this.resultBatchSize = resultBatchSize;
+    }
+
+    /**
+     * Starts a full processing run, or returns the run that is already active.
+     */
+    public ProcessingJob startOrJoin() {
+        return startOrJoin(ProcessingMode.FULL);
+    }
+
+    /**
+     * Starts a processing run in the given mode, or returns the run that is already active.
+     */
+    public synchronized ProcessingJob startOrJoin(ProcessingMode mode) {
+        if (activeJob != null && activeJob.getState() == ProcessingJobState.RUNNING) {
+            log.info("Joining running processing job {}.", activeJob.getId());
+            return activeJob;
+        }
+        evictFinishedJobs();
+
+        ProcessingJob job = new ProcessingJob(UUID.randomUUID().toString(), mode, resultBatchSize);
+        log.info("Starting {} processing job {}.", mode, job.getId());
+        Consumer<Item> sink = item -> {
+            List<Long> batch = job.recordProcessed(item.getId());
+            if (batch != null) {
+                saveResults(job, batch);
+            }
+        };
+        // published only once the run exists, so a run that fails to start leaves no job behind
+        // that later callers would join forever
+        CompletableFuture<ProcessingResult> run = switch (mode) {
+            case INCREMENTAL -> itemService.processNewItems(sink, job::isCancelRequested);
+            case RETRY -> itemService.retryFailedItems(sink, job::isCancelRequested, false);
+            case FULL -> startFullRun(job, sink);
+        };
+        jobs.put(job.getId(), job);
+        activeJob = job;
+        run.whenComplete((result, error) -> {
+            // written before the job reports that it has finished, so its results are complete then
+            saveResults(job, job.takeUnsavedIds());
+            job.finish(result, error);
+            log.info("Processing job {} finished as {}.", job.getId(), job.getState());
+        });
+        return job;
+    }
+
+    /**
+     * Full runs are checkpointed: a run that was interrupted by a restart, failed or was cancelled
+     * leaves a checkpoint behind, and the next full run resumes after it.
+     */
+    private CompletableFuture<ProcessingResult> startFullRun(ProcessingJob job, Consumer<Item> sink) {
+        long startAfter = checkpointService.resumePoint(FULL_RUN_CHECKPOINT);
+        if (startAfter != Long.MIN_VALUE) {
+            log.info("Processing job {} resumes an unfinished full run after item {}.", job.getId(), startAfter);
+        }
+        ProcessingCheckpointService.Tracker checkpoint =
+                checkpointService.track(FULL_RUN_CHECKPOINT, job.getId(), startAfter);
+        CompletableFuture<ProcessingResult> run =
+                itemService.processItems(sink, job::isCancelRequested, startAfter, checkpoint::progress);
+        run.whenComplete((result, error) -> {
+            if (error == null && !job.isCancelRequested()) {
+                checkpoint.complete();
+            } else {
+                checkpoint.suspend();
+            }
+        });
+        return run;
+    }
+
+    public synchronized Optional<ProcessingJob> findJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Returns up to size IDs, in ascending order and above after, of the items the job has
+     * processed. While the job runs, the IDs of its last unfinished batch are not listed yet.
+     */
+    public List<Long> findProcessedIds(ProcessingJob job, long after, int size) {
+        return resultRepository.findItemIdsAfter(job.getId(), after, Pageable.ofSize(size));
+    }
+
+    private void saveResults(ProcessingJob job, List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return;
+        }
+        try {
+            resultRepository.saveAll(itemIds.stream()
+                    .map(itemId -> new ProcessingJobResult(null, job.getId(), itemId))
+                    .toList());
+        } catch (RuntimeException e) {
+            // the items are processed either way; only the job's result list misses them
+            log.error("Could not record {} results of processing job {}.", itemIds.size(), job.getId(), e);
+        }
+    }
+
+    /**
+     * Requests cancellation of a running job. Returns the job, or empty if it is unknown.
+     */
+    public Optional<ProcessingJob> cancel(String id) {
+        Optional<ProcessingJob> job = findJob(id);
+        job.ifPresent(j -> {
+            if (j.requestCancel()) {
+                log.info("Cancellation requested for processing job {}.", id);
+            }
+        });
+        return job;
+    }
+
+    private void evictFinishedJobs() {
+        Iterator<ProcessingJob> iterator = jobs.values().iterator();
+        while (jobs.size() >= maxRetainedJobs && iterator.hasNext()) {
+            ProcessingJob job = iterator.next();
+            if (job.getState() != ProcessingJobState.RUNNING) {
+                iterator.remove();
+                try {
+                    resultRepository.deleteByJobId(job.getId());
+                } catch (RuntimeException e) {
+                    log.warn("Could not remove the results of evicted processing job {}.", job.getId(), e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.siemens.internship.service;
+
+import com.siemens.internship.model.ProcessingResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Periodically retries the failed items whose backoff has elapsed.
+ * A tick only starts the retry run and returns, so the scheduler thread is never held for the
+ * duration of a run; while the previous run is still going, ticks are skipped, so runs stay
+ * sequential. Costs nothing while no failure is pending.
+ */
+@Component
+@Slf4j
+public class ProcessingRetryScheduler {
+    private final ItemService itemService;
+    private final ProcessingFailureService failureService;
+    private volatile CompletableFuture<ProcessingResult> currentRun = CompletableFuture.completedFuture(null);
+
+    @Autowired
+    public ProcessingRetryScheduler(ItemService itemService, ProcessingFailureService failureService) {
+        this.itemService = itemService;
+        this.failureService = failureService;
+    }
+
+    @Scheduled(fixedDelayString = "${items.retry.poll-interval:PT30S}",
+            initialDelayString = "${items.retry.poll-interval:PT30S}")
+    public void retryDueFailures() {
+        if (!currentRun.isDone()) {
+            log.debug("Previous retry run is still in progress; skipping this one.");
+            return;
+        }
+        if (!failureService.hasPending()) {
+            return;
+        }
+        currentRun = itemService.retryFailedItems(item -> { }, () -> false, true)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.error("Retry run failed.", error);
+                    } else if (result.getRetried() > 0) {
+                        log.info("Retried {} failed items: {} processed, {} failed again.",
+                                result.getRetried(), result.getProcessed(), result.getFailed());
+                    }
+                });
+    }
+}
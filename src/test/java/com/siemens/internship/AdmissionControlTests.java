@@ -0,0 +1,98 @@
+package com.siemens.internship;
+
+import com.siemens.internship.config.AdmissionControlFilter;
+import com.siemens.internship.config.AdmissionControlFilter.Bulkhead;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControlTests {
+
+    SimpleMeterRegistry meterRegistry;
+
+    AdmissionControlFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("items.admission.list.max-concurrent", "1")
+                .withProperty("items.admission.batch.rate", "0.5")
+                .withProperty("items.admission.batch.burst", "1");
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new AdmissionControlFilter(environment, meterRegistry);
+    }
+
+    @Test
+    void bulkhead_ShouldSeparateHeavyEndpointsFromSingleItemReads() {
+        assertEquals(Bulkhead.READ, Bulkhead.of(request("GET", "/api/items/7")));
+        assertEquals(Bulkhead.LIST, Bulkhead.of(request("GET", "/api/items")));
+        MockHttpServletRequest page = request("GET", "/api/items");
+        page.addParameter("limit", "10");
+        assertEquals(Bulkhead.READ, Bulkhead.of(page));
+        assertEquals(Bulkhead.WRITE, Bulkhead.of(request("PUT", "/api/items/7")));
+        assertEquals(Bulkhead.BATCH, Bulkhead.of(request("POST", "/api/items/batch")));
+        assertEquals(Bulkhead.PROCESS, Bulkhead.of(request("POST", "/api/items/process")));
+        assertEquals(Bulkhead.READ, Bulkhead.of(request("GET", "/api/items/process/jobs/abc")));
+        assertEquals(Bulkhead.PROCESS, Bulkhead.of(request("POST", "/api/items/process/runs")));
+        assertEquals(Bulkhead.READ, Bulkhead.of(request("GET", "/api/items/process/runs/abc")));
+        assertNull(Bulkhead.of(request("GET", "/api/items/changes")));
+        assertNull(Bulkhead.of(request("GET", "/actuator/prometheus")));
+    }
+
+    @Test
+    void filter_ShouldReject_WhenBulkheadIsFull_WithoutAffectingOtherBulkheads() throws Exception {
+        AtomicReference<MockHttpServletResponse> nested = new AtomicReference<>();
+        FilterChain listChain = (request, response) -> {
+            // a second full list read arrives while the first one still holds the only permit
+            MockHttpServletResponse second = run(request("GET", "/api/items"));
+            nested.set(second);
+            assertEquals(200, run(request("GET", "/api/items/1")).getStatus());
+        };
+        MockHttpServletResponse first = new MockHttpServletResponse();
+
+        filter.doFilter(request("GET", "/api/items"), first, listChain);
+
+        assertEquals(200, first.getStatus());
+        assertEquals(429, nested.get().getStatus());
+        assertEquals("1", nested.get().getHeader("Retry-After"));
+        assertEquals(200, run(request("GET", "/api/items")).getStatus());
+        assertEquals(1.0, meterRegistry.get("items.admission.rejected")
+                .tag("bulkhead", "list").tag("reason", "concurrency").counter().count());
+    }
+
+    @Test
+    void filter_ShouldRejectWithRetryAfter_WhenRateIsExceeded() throws Exception {
+        assertEquals(200, run(request("POST", "/api/items/batch")).getStatus());
+
+        MockHttpServletResponse rejected = run(request("POST", "/api/items/batch"));
+
+        assertEquals(429, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertEquals(1.0, meterRegistry.get("items.admission.rejected")
+                .tag("bulkhead", "batch").tag("reason", "rate").counter().count());
+        assertEquals(0.0, meterRegistry.get("items.admission.in.flight").tag("bulkhead", "batch").gauge().value());
+    }
+
+    private MockHttpServletResponse run(MockHttpServletRequest request) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(request, response, new MockFilterChain());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String method, String uri) {
+        return new MockHttpServletRequest(method, uri);
+    }
+}
@@ -0,0 +1,81 @@
+package com.siemens.internship;
+
+import com.siemens.internship.config.AsyncConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncConfigTests {
+
+    private final AsyncConfig asyncConfig = new AsyncConfig();
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void taskExecutor_ShouldUseThreadPool_InPlatformMode() {
+        TaskExecutor executor = asyncConfig.taskExecutor(AsyncConfig.ExecutorMode.PLATFORM, 2, 4, 8, 10, meterRegistry);
+
+        ThreadPoolTaskExecutor pool = assertInstanceOf(ThreadPoolTaskExecutor.class, executor);
+        assertEquals(2, pool.getCorePoolSize());
+        assertEquals(4, pool.getMaxPoolSize());
+        assertEquals(8, pool.getQueueCapacity());
+        pool.shutdown();
+    }
+
+    @Test
+    void taskExecutor_ShouldAcceptEveryTaskAndBoundConcurrency_InVirtualMode() throws Exception {
+        int tasks = 2_000;
+        int maxConcurrency = 4;
+        TaskExecutor executor = asyncConfig.taskExecutor(AsyncConfig.ExecutorMode.VIRTUAL, 2, 4, 8, maxConcurrency, meterRegistry);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        for (int i = 0; i < tasks; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                assertTrue(Thread.currentThread().isVirtual());
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertTrue(peak.get() <= maxConcurrency, "peak concurrency was " + peak.get());
+        assertEquals(0, meterRegistry.get("items.executor.rejected").counter().count());
+        ((SimpleAsyncTaskExecutor) executor).close();
+    }
+
+    @Test
+    void taskExecutor_ShouldCountRejectionsAndExposeQueueDepth_InPlatformMode() throws Exception {
+        ThreadPoolTaskExecutor pool = (ThreadPoolTaskExecutor) asyncConfig.taskExecutor(
+                AsyncConfig.ExecutorMode.PLATFORM, 1, 1, 1, 10, meterRegistry);
+        CountDownLatch release = new CountDownLatch(1);
+        Runnable blocker = () -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        pool.execute(blocker);
+        pool.execute(blocker);
+        assertThrows(TaskRejectedException.class, () -> pool.execute(blocker));
+
+        assertEquals(1, meterRegistry.get("items.executor.rejected").counter().count());
+        assertEquals(1, meterRegistry.get("items.executor.queued").gauge().value());
+        release.countDown();
+        pool.shutdown();
+    }
+}
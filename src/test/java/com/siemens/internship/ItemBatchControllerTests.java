@@ -0,0 +1,132 @@
+package com.siemens.internship;
+
+import com.siemens.internship.controller.ItemBatchController;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.service.ItemBatchService;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ItemBatchControllerTests {
+
+    @Mock
+    private ItemBatchService itemBatchService;
+
+    private ItemBatchController itemBatchController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        itemBatchController = new ItemBatchController(itemBatchService, validator, 3);
+    }
+
+    @Test
+    void createItems_ShouldReturnCreated_WhenAllItemsValid() {
+        List<Item> items = List.of(item(null, "a"), item(null, "b"));
+        when(itemBatchService.createAll(items)).thenReturn(items);
+
+        ResponseEntity<List<Item>> response = itemBatchController.createItems(items);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(items, response.getBody());
+    }
+
+    @Test
+    void createItems_ShouldReturnBadRequest_WhenAnyItemInvalid() {
+        Item invalid = item(null, "b");
+        invalid.setEmail("not an email");
+
+        ResponseEntity<List<Item>> response = itemBatchController.createItems(List.of(item(null, "a"), invalid));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(itemBatchService, never()).createAll(anyList());
+    }
+
+    @Test
+    void createItems_ShouldReturnBadRequest_WhenBatchEmptyOrTooLarge() {
+        assertEquals(HttpStatus.BAD_REQUEST, itemBatchController.createItems(List.of()).getStatusCode());
+        List<Item> tooMany = List.of(item(null, "a"), item(null, "b"), item(null, "c"), item(null, "d"));
+        assertEquals(HttpStatus.BAD_REQUEST, itemBatchController.createItems(tooMany).getStatusCode());
+        verify(itemBatchService, never()).createAll(anyList());
+    }
+
+    @Test
+    void updateItems_ShouldReturnOK_WhenAllItemsValid() {
+        List<Item> items = List.of(item(1L, "a"), item(2L, "b"));
+        when(itemBatchService.updateAll(items)).thenReturn(items);
+
+        ResponseEntity<List<Item>> response = itemBatchController.updateItems(items);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(items, response.getBody());
+    }
+
+    @Test
+    void updateItems_ShouldReturnBadRequest_WhenIdsMissingOrDuplicated() {
+        assertEquals(HttpStatus.BAD_REQUEST,
+                itemBatchController.updateItems(List.of(item(1L, "a"), item(null, "b"))).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                itemBatchController.updateItems(List.of(item(1L, "a"), item(1L, "b"))).getStatusCode());
+        verify(itemBatchService, never()).updateAll(anyList());
+    }
+
+    @Test
+    void updateItems_ShouldReturnNotFound_WhenAnyItemMissing() {
+        when(itemBatchService.updateAll(anyList())).thenThrow(new NoSuchElementException("Items with IDs [2] not found"));
+
+        ResponseEntity<List<Item>> response = itemBatchController.updateItems(List.of(item(1L, "a"), item(2L, "b")));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void updateItems_ShouldReturnConflict_WhenAnyTransitionIsIllegal() {
+        when(itemBatchService.updateAll(anyList())).thenThrow(new IllegalStateException("Items with IDs [1] cannot move to the requested status"));
+
+        ResponseEntity<List<Item>> response = itemBatchController.updateItems(List.of(item(1L, "a")));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void deleteItems_ShouldReturnNoContent_WhenAllItemsExist() {
+        ResponseEntity<Void> response = itemBatchController.deleteItems(List.of(1L, 2L));
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(itemBatchService, times(1)).deleteAll(List.of(1L, 2L));
+    }
+
+    @Test
+    void deleteItems_ShouldReturnBadRequest_WhenIdsInvalid() {
+        assertEquals(HttpStatus.BAD_REQUEST, itemBatchController.deleteItems(List.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, itemBatchController.deleteItems(Arrays.asList(1L, null)).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, itemBatchController.deleteItems(List.of(1L, 1L)).getStatusCode());
+        verify(itemBatchService, never()).deleteAll(anyList());
+    }
+
+    @Test
+    void deleteItems_ShouldReturnNotFound_WhenAnyItemMissing() {
+        doThrow(new NoSuchElementException()).when(itemBatchService).deleteAll(anyList());
+
+        assertEquals(HttpStatus.NOT_FOUND, itemBatchController.deleteItems(List.of(1L)).getStatusCode());
+    }
+
+    private static Item item(Long id, String name) {
+        return new Item(id, name, null, ItemStatus.NEW, null, null);
+    }
+}
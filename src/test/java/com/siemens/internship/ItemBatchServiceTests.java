@@ -0,0 +1,152 @@
+package com.siemens.internship;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemBatchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class ItemBatchServiceTests {
+
+    @Mock
+    ItemRepository itemRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    Cache<Long, Item> itemCache;
+
+    List<Object> events;
+
+    ItemBatchService itemBatchService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        itemCache = Caffeine.newBuilder().build();
+        events = new ArrayList<>();
+        itemBatchService = new ItemBatchService(itemRepository, itemCache, new TransactionTemplate(transactionManager), events::add, 2);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createAll_ShouldSaveInChunksAndCacheResults() {
+        List<Item> items = List.of(item(9L, "a"), item(null, "b"), item(null, "c"));
+        long[] nextId = {1};
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> chunk = new ArrayList<>((List<Item>) invocation.getArgument(0));
+            chunk.forEach(item -> item.setId(nextId[0]++));
+            return chunk;
+        });
+
+        List<Item> saved = itemBatchService.createAll(items);
+
+        assertEquals(List.of(1L, 2L, 3L), saved.stream().map(Item::getId).toList());
+        verify(itemRepository, times(2)).saveAll(anyList());
+        assertEquals("c", itemCache.getIfPresent(3L).getName());
+    }
+
+    @Test
+    void updateAll_ShouldCopyFieldsOntoLoadedItemsChunkByChunk() {
+        Item existing1 = item(1L, "old1");
+        Item existing2 = item(2L, "old2");
+        Item existing3 = item(3L, "old3");
+        when(itemRepository.findStatuses(List.of(1L, 2L))).thenReturn(List.of(status(1L, ItemStatus.NEW), status(2L, ItemStatus.NEW)));
+        when(itemRepository.findStatuses(List.of(3L))).thenReturn(List.of(status(3L, ItemStatus.NEW)));
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(existing1, existing2));
+        when(itemRepository.findAllById(List.of(3L))).thenReturn(List.of(existing3));
+
+        List<Item> updated = itemBatchService.updateAll(List.of(item(1L, "new1"), item(2L, "new2"), item(3L, "new3")));
+
+        assertEquals(List.of("new1", "new2", "new3"), updated.stream().map(Item::getName).toList());
+        assertSame(existing3, updated.get(2));
+        verify(transactionManager, times(2)).commit(any());
+        verify(itemRepository, never()).save(any());
+        assertEquals("new1", itemCache.getIfPresent(1L).getName());
+    }
+
+    @Test
+    void updateAll_ShouldThrowWithoutWriting_WhenAnyItemIsMissing() {
+        when(itemRepository.findStatuses(anyList())).thenReturn(List.of(status(1L, ItemStatus.NEW)));
+
+        assertThrows(NoSuchElementException.class, () -> itemBatchService.updateAll(List.of(item(1L, "a"), item(2L, "b"))));
+
+        verify(itemRepository, never()).findAllById(anyList());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void updateAll_ShouldThrowWithoutWriting_WhenAnyTransitionIsInvalid() {
+        when(itemRepository.findStatuses(anyList())).thenReturn(List.of(status(1L, ItemStatus.NEW), status(2L, ItemStatus.ARCHIVED)));
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> itemBatchService.updateAll(List.of(item(1L, "a"), item(2L, "b"))));
+
+        assertEquals("Items with IDs [2] cannot move to the requested status", exception.getMessage());
+        verify(itemRepository, never()).findAllById(anyList());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    void deleteAll_ShouldDeleteInChunksAndInvalidateCache() {
+        itemCache.put(1L, item(1L, "a"));
+        when(itemRepository.findExistingIds(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findExistingIds(List.of(3L))).thenReturn(List.of(3L));
+
+        itemBatchService.deleteAll(List.of(1L, 2L, 3L));
+
+        verify(itemRepository, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(itemRepository, times(1)).deleteAllByIdInBatch(List.of(3L));
+        assertNull(itemCache.getIfPresent(1L));
+        assertEquals(2, events.size());
+        assertEquals(ItemChangeType.DELETED, ((ItemChangeEvent) events.get(0)).getType());
+        assertEquals(List.of(3L), ((ItemChangeEvent) events.get(1)).getIds());
+    }
+
+    @Test
+    void deleteAll_ShouldThrowWithoutDeleting_WhenAnyItemIsMissing() {
+        when(itemRepository.findExistingIds(anyList())).thenReturn(List.of());
+
+        NoSuchElementException exception = assertThrows(NoSuchElementException.class,
+                () -> itemBatchService.deleteAll(List.of(5L)));
+
+        assertEquals("Items with IDs [5] not found", exception.getMessage());
+        verify(itemRepository, never()).deleteAllByIdInBatch(anyList());
+    }
+
+    private static ItemRepository.IdAndStatus status(Long id, ItemStatus status) {
+        return new ItemRepository.IdAndStatus() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public ItemStatus getStatus() {
+                return status;
+            }
+        };
+    }
+
+    private static Item item(Long id, String name) {
+        return new Item(id, name, null, ItemStatus.NEW, null, null);
+    }
+}
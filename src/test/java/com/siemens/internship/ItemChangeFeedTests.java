@@ -0,0 +1,101 @@
+package com.siemens.internship;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.siemens.internship.controller.ItemChangeFeedController;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.service.ItemChangeFeed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ItemChangeFeedTests {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    ItemChangeFeed changeFeed;
+
+    MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // senders run on the publishing thread, so every event is written before onItemChange returns
+        changeFeed = new ItemChangeFeed(new ObjectMapper(), Runnable::run, 3, 1, Duration.ofMinutes(1),
+                new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new ItemChangeFeedController(changeFeed)).build();
+    }
+
+    @Test
+    void subscribe_ShouldStreamEveryChangeWithSequencedIds() throws Exception {
+        MvcResult result = subscribe(null);
+
+        changeFeed.onItemChange(ItemChangeEvent.ofIds(ItemChangeType.CREATED, List.of(1L, 2L)));
+        changeFeed.onItemChange(ItemChangeEvent.ofIds(ItemChangeType.DELETED, List.of(2L)));
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.contains("event:created\ndata:{\"type\":\"CREATED\",\"ids\":[1,2]}"), body);
+        assertTrue(body.contains("event:deleted\ndata:{\"type\":\"DELETED\",\"ids\":[2]}"), body);
+        assertEquals(2, eventIds(body).size());
+    }
+
+    @Test
+    void subscribe_ShouldResumeAfterLastEventId() throws Exception {
+        MvcResult first = subscribe(null);
+        changeFeed.onItemChange(ItemChangeEvent.ofIds(ItemChangeType.CREATED, List.of(1L)));
+        changeFeed.onItemChange(ItemChangeEvent.ofIds(ItemChangeType.UPDATED, List.of(1L)));
+        String firstId = eventIds(first.getResponse().getContentAsString()).get(0);
+        changeFeed.close();
+
+        String body = subscribe(firstId).getResponse().getContentAsString();
+
+        assertFalse(body.contains("event:created"), body);
+        assertTrue(body.contains("event:updated"), body);
+    }
+
+    @Test
+    void subscribe_ShouldSendReset_WhenLastEventIdIsNoLongerBuffered() throws Exception {
+        for (long id = 1; id <= 5; id++) {
+            changeFeed.onItemChange(ItemChangeEvent.ofIds(ItemChangeType.CREATED, List.of(id)));
+        }
+
+        MvcResult result = subscribe("unknown-1");
+        changeFeed.onItemChange(ItemChangeEvent.ofIds(ItemChangeType.PROCESSED, List.of(5L)));
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.indexOf("event:reset") < body.indexOf("event:processed"), body);
+        assertFalse(body.contains("event:created"), body);
+    }
+
+    @Test
+    void subscribe_ShouldReturn503_WhenSubscriberLimitIsReached() throws Exception {
+        subscribe(null);
+
+        mockMvc.perform(get("/api/items/changes")).andExpect(status().isServiceUnavailable());
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        var builder = get("/api/items/changes");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    private static List<String> eventIds(String body) {
+        Matcher matcher = EVENT_ID.matcher(body);
+        return matcher.results().map(match -> match.group(1)).toList();
+    }
+}
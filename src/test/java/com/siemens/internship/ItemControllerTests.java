@@ -1,18 +1,40 @@
 package com.siemens.internship;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.siemens.internship.controller.ItemController;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ItemCacheStats;
+import com.siemens.internship.model.ItemField;
+import com.siemens.internship.model.ItemFieldsPage;
+import com.siemens.internship.model.ItemPage;
 import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ItemTableVersion;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
@@ -28,6 +50,12 @@ class ItemControllerTests {
     @Mock
     private BindingResult bindingResult;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private ItemTableVersion tableVersion = new ItemTableVersion();
+
     @InjectMocks
     private ItemController itemController;
 
@@ -40,19 +68,102 @@ class ItemControllerTests {
     void getAllItems_ShouldReturnOK() {
         when(itemService.findAll()).thenReturn(List.of(new Item()));
 
-        ResponseEntity<List<Item>> response = itemController.getAllItems();
+        ResponseEntity<List<Item>> response = itemController.getAllItems(getRequest());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(1, response.getBody().size());
     }
 
+    @Test
+    void getItemsPage_ShouldReturnOK_WhenLimitIsValid() {
+        ItemPage page = new ItemPage(List.of(new Item()), "token");
+        when(itemService.findPage("after", 10, null)).thenReturn(page);
+
+        ResponseEntity<ItemPage> response = itemController.getItemsPage("after", null, 10, getRequest());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void getItemsPage_ShouldReturnBadRequest_WhenLimitOutOfRange() {
+        assertEquals(HttpStatus.BAD_REQUEST, itemController.getItemsPage(null, null, 0, getRequest()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, itemController.getItemsPage(null, null, 1001, getRequest()).getStatusCode());
+        verify(itemService, never()).findPage(any(), anyInt());
+    }
+
+    @Test
+    void getAllItemFields_ShouldReturnProjectedRows() {
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "name", "first"));
+        when(itemService.findAllFields(EnumSet.of(ItemField.ID, ItemField.NAME))).thenReturn(rows);
+
+        ResponseEntity<List<Map<String, Object>>> response = itemController.getAllItemFields("id,name", getRequest());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(rows, response.getBody());
+        verify(itemService, never()).findAll();
+    }
+
+    @Test
+    void getAllItemFields_ShouldReturnBadRequest_WhenFieldIsUnknown() {
+        ResponseEntity<List<Map<String, Object>>> response = itemController.getAllItemFields("name,password", getRequest());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void getItemFieldsPage_ShouldReturnOK_WhenParametersAreValid() {
+        ItemFieldsPage page = new ItemFieldsPage(List.of(Map.of("id", 1L, "status", ItemStatus.NEW)), null);
+        when(itemService.findFieldsPage(null, 10, ItemStatus.NEW, EnumSet.of(ItemField.ID, ItemField.STATUS))).thenReturn(page);
+
+        ResponseEntity<ItemFieldsPage> response = itemController.getItemFieldsPage(null, ItemStatus.NEW, 10, "status", getRequest());
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST, itemController.getItemFieldsPage(null, null, 0, "status", getRequest()).getStatusCode());
+    }
+
+    @Test
+    void getItemsPage_ShouldReturnBadRequest_WhenTokenIsInvalid() {
+        when(itemService.findPage("bad", 10, null)).thenThrow(new IllegalArgumentException("Invalid continuation token: bad"));
+
+        ResponseEntity<ItemPage> response = itemController.getItemsPage("bad", null, 10, getRequest());
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllItems_ShouldWriteOneJsonLinePerItem() throws Exception {
+        Item first = new Item(1L, "first", null, ItemStatus.NEW, null, null);
+        Item second = new Item(2L, "second", null, ItemStatus.PROCESSED, null, null);
+        when(itemService.streamAll(any())).thenAnswer(invocation -> {
+            Consumer<Item> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return 2L;
+        });
+
+        ResponseEntity<StreamingResponseBody> response = itemController.streamAllItems();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(1L, objectMapper.readValue(lines[0], Item.class).getId());
+        assertEquals("second", objectMapper.readValue(lines[1], Item.class).getName());
+    }
+
     @Test
     void createItem_ShouldReturnCreated_WhenValid() {
         Item item = new Item();
         item.setName("test item");
         item.setDescription("test description");
-        item.setStatus("NEW");
+        item.setStatus(ItemStatus.NEW);
         item.setEmail("test@example.com");
 
         when(bindingResult.hasErrors()).thenReturn(false);
@@ -82,14 +193,16 @@ class ItemControllerTests {
         item.setId(1L);
         item.setName("test name");
         item.setDescription("test description");
-        item.setStatus("NEW");
+        item.setStatus(ItemStatus.NEW);
         item.setEmail("test@example.com");
+        item.setVersion(7L);
 
         when(itemService.findById(1L)).thenReturn(Optional.of(item));
 
-        ResponseEntity<Item> response = itemController.getItemById(1L);
+        ResponseEntity<Item> response = itemController.getItemById(1L, getRequest());
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"7\"", response.getHeaders().getETag());
         assertNotNull(response.getBody());
         assertEquals(item, response.getBody());
     }
@@ -98,41 +211,98 @@ class ItemControllerTests {
     void getItemById_ShouldReturnNotFound_WhenNotExists() {
         when(itemService.findById(anyLong())).thenReturn(Optional.empty());
 
-        ResponseEntity<Item> response = itemController.getItemById(5L);
+        ResponseEntity<Item> response = itemController.getItemById(5L, getRequest());
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
 
     @Test
-    void updateItem_ShouldReturnOK_WhenIsPresent() {
+    void updateItem_ShouldReturnOKWithETag_WhenIsPresent() {
         Item item = new Item();
         item.setName("test name");
         item.setDescription("test description");
-        item.setStatus("NEW");
+        item.setStatus(ItemStatus.NEW);
         item.setEmail("test@example.com");
+        Item updated = new Item(2L, "test name", "test description", ItemStatus.NEW, "test@example.com", 4L);
 
-        when(itemService.findById(anyLong())).thenReturn(Optional.of(item));
-        when(itemService.save(any())).thenReturn(item);
+        when(itemService.update(2L, item, null)).thenReturn(updated);
 
-        ResponseEntity<Item> response = itemController.updateItem(2L, item);
+        ResponseEntity<Item> response = itemController.updateItem(2L, item, bindingResult, null);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
-        assertNotNull(response.getBody());
-        assertEquals(item, response.getBody());
-        assertEquals(2L, response.getBody().getId());
+        assertEquals(updated, response.getBody());
+        assertEquals("\"4\"", response.getHeaders().getETag());
+        verify(itemService, never()).findById(anyLong());
+        verify(itemService, never()).save(any());
+    }
+
+    @Test
+    void updateItem_ShouldPassIfMatchVersionToService() {
+        Item item = new Item();
+        when(itemService.update(2L, item, 3L)).thenReturn(new Item(2L, null, null, ItemStatus.NEW, null, 4L));
+
+        ResponseEntity<Item> response = itemController.updateItem(2L, item, bindingResult, "\"3\"");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(itemService, times(1)).update(2L, item, 3L);
+    }
+
+    @Test
+    void updateItem_ShouldReturnPreconditionFailed_WhenIfMatchIsStale() {
+        when(itemService.update(anyLong(), any(), eq(3L))).thenThrow(new OptimisticLockingFailureException("stale"));
+
+        ResponseEntity<Item> response = itemController.updateItem(1L, new Item(), bindingResult, "\"3\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+    }
+
+    @Test
+    void updateItem_ShouldReturnPreconditionFailed_WhenIfMatchIsNotOurETag() {
+        ResponseEntity<Item> response = itemController.updateItem(1L, new Item(), bindingResult, "W/\"3\"");
+
+        assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+        verify(itemService, never()).update(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateItem_ShouldReturnConflict_WhenConcurrentlyModifiedWithoutIfMatch() {
+        when(itemService.update(anyLong(), any(), isNull())).thenThrow(new OptimisticLockingFailureException("concurrent"));
+
+        ResponseEntity<Item> response = itemController.updateItem(1L, new Item(), bindingResult, "*");
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
     }
 
     @Test
     void updateItem_ShouldReturnNotFound_WhenIsNotPresent() {
-        when(itemService.findById(anyLong())).thenReturn(Optional.empty());
+        when(itemService.update(anyLong(), any(), any())).thenThrow(new NoSuchElementException("Item with ID 1 not found"));
 
-        ResponseEntity<Item> response = itemController.updateItem(1L, new Item());
+        ResponseEntity<Item> response = itemController.updateItem(1L, new Item(), bindingResult, null);
 
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
         assertNull(response.getBody());
     }
 
+    @Test
+    void updateItem_ShouldReturnConflict_WhenStatusTransitionIsIllegal() {
+        when(itemService.update(anyLong(), any(), any())).thenThrow(new IllegalStateException("Item with ID 1 cannot move from ARCHIVED to NEW"));
+
+        ResponseEntity<Item> response = itemController.updateItem(1L, new Item(), bindingResult, null);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+    }
+
+    @Test
+    void updateItem_ShouldReturnBadRequest_WhenValidationFails() {
+        when(bindingResult.hasErrors()).thenReturn(true);
+
+        ResponseEntity<Item> response = itemController.updateItem(1L, new Item(), bindingResult, null);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(itemService, never()).update(anyLong(), any(), any());
+    }
+
     @Test
     void deleteItem_ShouldReturnNoContent_WhenNoError() {
         Long id = 1L;
@@ -169,6 +339,17 @@ class ItemControllerTests {
         verify(itemService, times(1)).deleteById(id);
     }
 
+    @Test
+    void getCacheStats_ShouldReturnOK() {
+        ItemCacheStats stats = new ItemCacheStats(1, 10, 2, 0, 10 / 12.0);
+        when(itemService.cacheStats()).thenReturn(stats);
+
+        ResponseEntity<ItemCacheStats> response = itemController.getCacheStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+    }
+
     @Test
     void processItems_ShouldReturnOK_WhenItemsProcessed() throws InterruptedException {
         List<Item> processedItems = List.of(new Item());
@@ -205,4 +386,112 @@ class ItemControllerTests {
         assertNull(response.getBody());
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void processItemsInBulk_ShouldStreamProcessedIdsChunkByChunk() throws Exception {
+        when(itemService.processItemsInBulk(eq(500), any())).thenAnswer(invocation -> {
+            Consumer<List<Long>> sink = invocation.getArgument(1);
+            sink.accept(List.of(1L, 2L));
+            sink.accept(List.of(5L));
+            return 3L;
+        });
+
+        ResponseEntity<StreamingResponseBody> response = itemController.processItemsInBulk(500);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+        assertEquals("1\n2\n5\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void processItemsInBulk_ShouldStreamEmptyBody_WhenNoItemsProcessed() throws Exception {
+        when(itemService.processItemsInBulk(anyInt(), any())).thenReturn(0L);
+
+        ResponseEntity<StreamingResponseBody> response = itemController.processItemsInBulk(1000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void processItemsInBulk_ShouldReturnBadRequest_WhenChunkSizeNotPositive() {
+        ResponseEntity<StreamingResponseBody> response = itemController.processItemsInBulk(0);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verify(itemService, never()).processItemsInBulk(anyInt(), any());
+    }
+
+
+    @Test
+    void getAllItems_ShouldReturnNotModifiedWithoutLoading_WhenETagMatches() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, tableVersion.eTag());
+
+        ResponseEntity<List<Item>> response = itemController.getAllItems(new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void getAllItems_ShouldReturnItems_WhenTableChangedSinceETag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, tableVersion.eTag());
+        tableVersion.increment();
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        when(itemService.findAll()).thenReturn(List.of(new Item()));
+
+        ResponseEntity<List<Item>> response = itemController.getAllItems(new ServletWebRequest(request, servletResponse));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(tableVersion.eTag(), servletResponse.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void getAllItemFields_ShouldReturnNotModified_WhenNotModifiedSince() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, tableVersion.lastModified() + 1000);
+
+        ResponseEntity<List<Map<String, Object>>> response = itemController.getAllItemFields("name",
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verifyNoInteractions(itemService);
+    }
+
+    @Test
+    void getItemById_ShouldReturnNotModifiedWithoutLoading_WhenVersionMatches() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3\"");
+        when(itemService.findVersion(1L)).thenReturn(Optional.of(3L));
+
+        ResponseEntity<Item> response = itemController.getItemById(1L, new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(itemService, never()).findById(anyLong());
+    }
+
+    @Test
+    void getItemById_ShouldReturnItem_WhenVersionChanged() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/items/1");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"3\"");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        Item item = new Item(1L, "n", null, ItemStatus.NEW, null, 4L);
+        when(itemService.findVersion(1L)).thenReturn(Optional.of(4L));
+        when(itemService.findById(1L)).thenReturn(Optional.of(item));
+
+        ResponseEntity<Item> response = itemController.getItemById(1L, new ServletWebRequest(request, servletResponse));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(item, response.getBody());
+        assertEquals("\"4\"", servletResponse.getHeader(HttpHeaders.ETAG));
+    }
+
+    private static WebRequest getRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/api/items"), new MockHttpServletResponse());
+    }
 }
@@ -0,0 +1,157 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.service.ItemProcessingStages;
+import com.siemens.internship.service.ItemProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemProcessingStagesTests {
+
+    ExecutorService ioExecutor;
+
+    ForkJoinPool cpuExecutor;
+
+    MockEnvironment environment;
+
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        ioExecutor = Executors.newFixedThreadPool(8, task -> new Thread(task, "Io-test"));
+        cpuExecutor = new ForkJoinPool(4);
+        environment = new MockEnvironment();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        ioExecutor.shutdownNow();
+        cpuExecutor.shutdownNow();
+    }
+
+    @Test
+    void process_ShouldRunStagesInOrderOnTheExecutorOfTheirKind() throws Exception {
+        Map<String, String> threads = new ConcurrentHashMap<>();
+        List<String> order = new ArrayList<>();
+        ItemProcessingStages stages = new ItemProcessingStages(List.of(
+                processor("enrich", ItemProcessor.Kind.IO, item -> {
+                    threads.put("enrich", Thread.currentThread().getName());
+                    order.add("enrich");
+                }),
+                processor("transform", ItemProcessor.Kind.CPU, item -> {
+                    threads.put("transform", Thread.currentThread().getName());
+                    order.add("transform");
+                    item.setName(item.getName().toUpperCase());
+                })), ioExecutor, cpuExecutor, environment, meterRegistry);
+
+        Item item = stages.process(new Item(1L, "a", null, ItemStatus.NEW, null, 0L)).get(5, TimeUnit.SECONDS);
+
+        assertEquals("A", item.getName());
+        assertEquals(List.of("enrich", "transform"), order);
+        assertEquals("Io-test", threads.get("enrich"));
+        assertTrue(threads.get("transform").contains("ForkJoinPool"));
+        assertEquals(1, meterRegistry.get("items.processing.stage").tags("stage", "transform", "outcome", "success")
+                .timer().count());
+    }
+
+    @Test
+    void process_ShouldNeverRunMoreTasksThanTheStageParallelism() throws Exception {
+        environment.setProperty("items.processing.stages.slow.parallelism", "2");
+        environment.setProperty("items.processing.stages.slow.batch-size", "5");
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ItemProcessingStages stages = new ItemProcessingStages(List.of(
+                processor("slow", ItemProcessor.Kind.IO, item -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                })), ioExecutor, cpuExecutor, environment, meterRegistry);
+
+        List<CompletableFuture<Item>> results = new ArrayList<>();
+        for (long id = 1; id <= 40; id++) {
+            results.add(stages.process(new Item(id, "item", null, ItemStatus.NEW, null, 0L)));
+        }
+        Thread.sleep(100);
+        release.countDown();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        assertEquals(2, maxRunning.get());
+        assertEquals(40, meterRegistry.get("items.processing.stage").tags("stage", "slow", "outcome", "success")
+                .timer().count());
+        assertEquals(0, meterRegistry.get("items.processing.stage.queued").tags("stage", "slow").gauge().value());
+    }
+
+    @Test
+    void process_ShouldOnlyFailTheItemWhoseProcessorThrew() throws Exception {
+        ItemProcessingStages stages = new ItemProcessingStages(List.of(
+                processor("validate", ItemProcessor.Kind.CPU, item -> {
+                    if (item.getEmail() == null) {
+                        throw new IllegalArgumentException("Item " + item.getId() + " has no email");
+                    }
+                })), ioExecutor, cpuExecutor, environment, meterRegistry);
+
+        CompletableFuture<Item> invalid = stages.process(new Item(1L, "a", null, ItemStatus.NEW, null, 0L));
+        CompletableFuture<Item> valid = stages.process(new Item(2L, "b", null, ItemStatus.NEW, "b@example.com", 0L));
+
+        assertEquals(2L, valid.get(5, TimeUnit.SECONDS).getId());
+        ExecutionException error = assertThrows(ExecutionException.class, () -> invalid.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertEquals(1, meterRegistry.get("items.processing.stage").tags("stage", "validate", "outcome", "failure")
+                .timer().count());
+    }
+
+    @Test
+    void constructor_ShouldRejectNonPositiveStageSettings() {
+        environment.setProperty("items.processing.stages.enrich.batch-size", "0");
+
+        assertThrows(IllegalArgumentException.class, () -> new ItemProcessingStages(
+                List.of(processor("enrich", ItemProcessor.Kind.IO, item -> { })), ioExecutor, cpuExecutor,
+                environment, meterRegistry));
+    }
+
+    private static ItemProcessor processor(String name, ItemProcessor.Kind kind, Consumer<Item> action) {
+        return new ItemProcessor() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Kind getKind() {
+                return kind;
+            }
+
+            @Override
+            public void process(Item item) {
+                action.accept(item);
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.service.ItemSearchIndex;
+import com.siemens.internship.service.ItemService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+class ItemSearchIndexTests {
+
+    @Mock
+    ItemService itemService;
+
+    ItemSearchIndex searchIndex;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        List<Item> items = List.of(
+                item(1L, "Blue widget", "Small and cheap"),
+                item(2L, "Red gadget", "Pairs with the blue widget"),
+                item(3L, "Widgetry handbook", null));
+        when(itemService.streamAll(any())).thenAnswer(invocation -> {
+            items.forEach(((Consumer<Item>) invocation.getArgument(0))::accept);
+            return (long) items.size();
+        });
+        searchIndex = new ItemSearchIndex(itemService);
+        searchIndex.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchIndex.stop();
+    }
+
+    @Test
+    void search_ShouldRankExactNameMatchesAbovePrefixAndDescriptionMatches() {
+        ItemSearchIndex.Hits hits = searchIndex.search("widget", 0, 10);
+
+        assertEquals(List.of(1L, 3L, 2L), hits.getIds());
+        assertEquals(3, hits.getTotal());
+        assertTrue(hits.isTotalExact());
+    }
+
+    @Test
+    void search_ShouldRequireEveryTokenToMatch() {
+        assertEquals(List.of(2L), searchIndex.search("RED wid", 0, 10).getIds());
+        assertEquals(List.of(), searchIndex.search("red handbook", 0, 10).getIds());
+    }
+
+    @Test
+    void search_ShouldReturnRequestedPage() {
+        ItemSearchIndex.Hits hits = searchIndex.search("wid", 1, 2);
+
+        assertEquals(1, hits.getIds().size());
+        assertEquals(3, hits.getTotal());
+    }
+
+    @Test
+    void onItemChange_ShouldReindexUpdatedAndDropDeletedItems() {
+        searchIndex.onItemChange(ItemChangeEvent.of(ItemChangeType.CREATED, List.of(item(4L, "Green widget", null))));
+        searchIndex.onItemChange(ItemChangeEvent.of(ItemChangeType.UPDATED, List.of(item(1L, "Blue sprocket", null))));
+        searchIndex.onItemChange(ItemChangeEvent.ofIds(ItemChangeType.DELETED, List.of(3L)));
+
+        assertEquals(List.of(4L, 2L), searchIndex.search("widget", 0, 10).getIds());
+        assertEquals(List.of(1L), searchIndex.search("sprocket", 0, 10).getIds());
+    }
+
+    @Test
+    void onItemChange_ShouldNotThrow_WhenIndexIsClosed() {
+        searchIndex.stop();
+
+        assertDoesNotThrow(() -> searchIndex.onItemChange(
+                ItemChangeEvent.of(ItemChangeType.UPDATED, List.of(item(1L, "Blue sprocket", null)))));
+    }
+
+    @Test
+    void search_ShouldRejectQueriesWithoutTermsAndPagesBeyondWindow() {
+        assertThrows(IllegalArgumentException.class, () -> searchIndex.search(" ?! ", 0, 10));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchIndex.search("widget", ItemSearchIndex.MAX_WINDOW / 10, 10));
+    }
+
+    private static Item item(Long id, String name, String description) {
+        return new Item(id, name, description, ItemStatus.NEW, null, 0L);
+    }
+}
@@ -1,6 +1,7 @@
 package com.siemens.internship;
 
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
 import com.siemens.internship.repository.ItemRepository;
 import com.siemens.internship.service.ItemService;
 import org.junit.jupiter.api.Test;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -42,12 +44,12 @@ class ItemServiceAsyncTests {
         List<Long> itemIds = Arrays.asList(1L, 2L);
         Item item1 = new Item();
         item1.setId(1L);
-        item1.setStatus("NEW");
+        item1.setStatus(ItemStatus.NEW);
         Item item2 = new Item();
         item2.setId(2L);
-        item2.setStatus("NEW");
+        item2.setStatus(ItemStatus.NEW);
 
-        when(itemRepository.findAllIds()).thenReturn(itemIds);
+        when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenReturn(itemIds, Collections.emptyList());
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
         when(itemRepository.findById(2L)).thenReturn(Optional.of(item2));
         when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -56,14 +58,14 @@ class ItemServiceAsyncTests {
         List<Item> processedItems = future.get();
 
         assertEquals(2, processedItems.size());
-        assertEquals("PROCESSED", processedItems.get(0).getStatus());
-        assertEquals("PROCESSED", processedItems.get(1).getStatus());
+        assertEquals(ItemStatus.PROCESSED, processedItems.get(0).getStatus());
+        assertEquals(ItemStatus.PROCESSED, processedItems.get(1).getStatus());
         verify(itemRepository, times(2)).save(any(Item.class));
     }
 
     @Test
     void processItemsAsync_ShouldHandleEmptyItemList() throws Exception {
-        when(itemRepository.findAllIds()).thenReturn(Collections.emptyList());
+        when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenReturn(Collections.emptyList());
 
         CompletableFuture<List<Item>> future = itemService.processItemsAsync();
         List<Item> processedItems = future.get();
@@ -78,9 +80,9 @@ class ItemServiceAsyncTests {
         List<Long> itemIds = Arrays.asList(1L, 2L);
         Item item1 = new Item();
         item1.setId(1L);
-        item1.setStatus("NEW");
+        item1.setStatus(ItemStatus.NEW);
 
-        when(itemRepository.findAllIds()).thenReturn(itemIds);
+        when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenReturn(itemIds, Collections.emptyList());
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
         when(itemRepository.findById(2L)).thenThrow(new RuntimeException("Error fetching item"));
         when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
@@ -89,7 +91,7 @@ class ItemServiceAsyncTests {
         List<Item> processedItems = future.get();
 
         assertEquals(1, processedItems.size());
-        assertEquals("PROCESSED", processedItems.get(0).getStatus());
+        assertEquals(ItemStatus.PROCESSED, processedItems.get(0).getStatus());
         verify(itemRepository, times(1)).save(any(Item.class));
     }
 
@@ -98,12 +100,12 @@ class ItemServiceAsyncTests {
         List<Long> itemIds = Arrays.asList(1L, 2L);
         Item item1 = new Item();
         item1.setId(1L);
-        item1.setStatus("NEW");
+        item1.setStatus(ItemStatus.NEW);
         Item item2 = new Item();
         item2.setId(2L);
-        item2.setStatus("NEW");
+        item2.setStatus(ItemStatus.NEW);
 
-        when(itemRepository.findAllIds()).thenReturn(itemIds);
+        when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenReturn(itemIds, Collections.emptyList());
         when(itemRepository.findById(1L)).thenReturn(Optional.of(item1));
         when(itemRepository.findById(2L)).thenReturn(Optional.of(item2));
         when(itemRepository.save(item1)).thenThrow(new RuntimeException("Error saving item"));
@@ -113,7 +115,7 @@ class ItemServiceAsyncTests {
         List<Item> processedItems = future.get();
 
         assertEquals(1, processedItems.size());
-        assertEquals("PROCESSED", processedItems.get(0).getStatus());
+        assertEquals(ItemStatus.PROCESSED, processedItems.get(0).getStatus());
         verify(itemRepository, times(2)).save(any(Item.class));
     }
 }
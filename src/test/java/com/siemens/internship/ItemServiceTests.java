@@ -1,31 +1,93 @@
 package com.siemens.internship;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.ItemCacheStats;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.model.ItemField;
+import com.siemens.internship.model.ItemFieldsPage;
+import com.siemens.internship.model.ItemPage;
+import com.siemens.internship.model.ProcessingResult;
 import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemProcessingStages;
+import com.siemens.internship.service.ItemProcessor;
 import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ItemWriteBehindBuffer;
+import com.siemens.internship.service.ProcessingFailureService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 class ItemServiceTests {
 
+    private static final Set<ItemStatus> PROCESSABLE = EnumSet.of(ItemStatus.NEW);
+
     @Mock
     ItemRepository itemRepository;
 
-    @InjectMocks
+    @Mock
+    EntityManager entityManager;
+
+    @Mock
+    ProcessingFailureService failureService;
+
+    @Mock
+    ItemWriteBehindBuffer writeBehind;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate transactionTemplate;
+
+    Cache<Long, Item> itemCache;
+
+    MeterRegistry meterRegistry;
+
+    List<Object> events;
+
     ItemService itemService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        itemCache = Caffeine.newBuilder().recordStats().build();
+        meterRegistry = new SimpleMeterRegistry();
+        events = new ArrayList<>();
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        itemService = new ItemService(itemRepository, Runnable::run, entityManager, itemCache, events::add, failureService, writeBehind, noStages(), transactionTemplate, 2, 2, Duration.ofSeconds(10), meterRegistry);
     }
 
     @Test
@@ -39,6 +101,104 @@ class ItemServiceTests {
         assertEquals(items, result);
     }
 
+    @Test
+    void streamAll_ShouldPassEveryItemToConsumerAndDetachIt() {
+        Item first = new Item();
+        first.setId(1L);
+        Item second = new Item();
+        second.setId(2L);
+        when(itemRepository.streamAll()).thenReturn(Stream.of(first, second));
+        List<Item> consumed = new ArrayList<>();
+
+        long count = itemService.streamAll(consumed::add);
+
+        assertEquals(2, count);
+        assertEquals(List.of(first, second), consumed);
+        verify(entityManager, times(1)).detach(first);
+        verify(entityManager, times(1)).detach(second);
+    }
+
+    @Test
+    void findPage_ShouldReturnContinuationToken_WhenMoreItemsExist() {
+        Item first = new Item();
+        first.setId(1L);
+        Item second = new Item();
+        second.setId(2L);
+        Item third = new Item();
+        third.setId(3L);
+        when(itemRepository.findPageAfter(Long.MIN_VALUE, Pageable.ofSize(3))).thenReturn(List.of(first, second, third));
+        when(itemRepository.findPageAfter(2L, Pageable.ofSize(3))).thenReturn(List.of(third));
+
+        ItemPage page = itemService.findPage(null, 2);
+
+        assertEquals(List.of(first, second), page.getItems());
+        assertNotNull(page.getNextToken());
+
+        ItemPage lastPage = itemService.findPage(page.getNextToken(), 2);
+
+        assertEquals(List.of(third), lastPage.getItems());
+        assertNull(lastPage.getNextToken());
+    }
+
+    @Test
+    void findPage_ShouldFilterByStatus_WhenStatusGiven() {
+        Item item = new Item(5L, "n", null, ItemStatus.NEW, null, null);
+        when(itemRepository.findPageByStatusAfter(ItemStatus.NEW, Long.MIN_VALUE, Pageable.ofSize(11))).thenReturn(List.of(item));
+
+        ItemPage page = itemService.findPage(null, 10, ItemStatus.NEW);
+
+        assertEquals(List.of(item), page.getItems());
+        assertNull(page.getNextToken());
+        verify(itemRepository, never()).findPageAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void findFieldsPage_ShouldReturnProjectedRowsAndContinuationToken() {
+        Set<ItemField> fields = EnumSet.of(ItemField.ID, ItemField.NAME);
+        Map<String, Object> first = Map.of("id", 1L, "name", "first");
+        Map<String, Object> second = Map.of("id", 2L, "name", "second");
+        when(itemRepository.findFieldsAfter(fields, ItemStatus.NEW, Long.MIN_VALUE, Pageable.ofSize(2)))
+                .thenReturn(List.of(first, second));
+        when(itemRepository.findFieldsAfter(fields, ItemStatus.NEW, 1L, Pageable.ofSize(2)))
+                .thenReturn(List.of(second));
+
+        ItemFieldsPage page = itemService.findFieldsPage(null, 1, ItemStatus.NEW, fields);
+
+        assertEquals(List.of(first), page.getItems());
+        assertNotNull(page.getNextToken());
+
+        ItemFieldsPage lastPage = itemService.findFieldsPage(page.getNextToken(), 1, ItemStatus.NEW, fields);
+
+        assertEquals(List.of(second), lastPage.getItems());
+        assertNull(lastPage.getNextToken());
+        verify(itemRepository, never()).findPageAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void findAllFields_ShouldReadAllRowsWithoutPaging() {
+        Set<ItemField> fields = EnumSet.of(ItemField.ID, ItemField.STATUS);
+        List<Map<String, Object>> rows = List.of(Map.of("id", 1L, "status", ItemStatus.NEW));
+        when(itemRepository.findFieldsAfter(fields, null, Long.MIN_VALUE, Pageable.unpaged())).thenReturn(rows);
+
+        assertEquals(rows, itemService.findAllFields(fields));
+        verify(itemRepository, never()).findAll();
+    }
+
+    @Test
+    void itemField_ShouldParseFieldListAndAlwaysIncludeId() {
+        assertEquals(EnumSet.of(ItemField.ID, ItemField.NAME, ItemField.STATUS), ItemField.parse("status, name"));
+        assertThrows(IllegalArgumentException.class, () -> ItemField.parse("name,secret"));
+        assertThrows(IllegalArgumentException.class, () -> ItemField.parse(" "));
+        assertThrows(IllegalArgumentException.class, () -> ItemField.parse(" , ,"));
+    }
+
+    @Test
+    void findPage_ShouldThrowIllegalArgumentException_WhenTokenIsInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.findPage("not a token!", 10));
+        assertThrows(IllegalArgumentException.class, () -> itemService.findPage("MTIz", 10));
+        verify(itemRepository, never()).findPageAfter(anyLong(), any(Pageable.class));
+    }
+
     @Test
     void findById_ShouldReturnItem_WhenItemExists() {
         Long id = 1L;
@@ -62,9 +222,73 @@ class ItemServiceTests {
         assertFalse(result.isPresent());
     }
 
+    @Test
+    void findById_ShouldServeRepeatedReadsFromCache() {
+        Item item = new Item();
+        item.setId(1L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        itemService.findById(1L);
+        Optional<Item> result = itemService.findById(1L);
+
+        assertEquals(Optional.of(item), result);
+        verify(itemRepository, times(1)).findById(1L);
+        ItemCacheStats stats = itemService.cacheStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    void findById_ShouldNotCacheMissingItems() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.empty());
+
+        itemService.findById(1L);
+        itemService.findById(1L);
+
+        verify(itemRepository, times(2)).findById(1L);
+        assertEquals(0, itemService.cacheStats().getSize());
+    }
+
+    @Test
+    void save_ShouldRefreshCachedItem() {
+        Item stale = new Item();
+        stale.setId(1L);
+        stale.setName("old");
+        Item fresh = new Item();
+        fresh.setId(1L);
+        fresh.setName("new");
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(stale));
+        when(itemRepository.save(fresh)).thenReturn(fresh);
+
+        itemService.findById(1L);
+        itemService.save(fresh);
+
+        assertEquals("new", itemService.findById(1L).orElseThrow().getName());
+        verify(itemRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void deleteById_ShouldInvalidateCachedItem() {
+        Item item = new Item();
+        item.setId(1L);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item), Optional.empty());
+        when(itemRepository.existsById(1L)).thenReturn(true);
+
+        itemService.findById(1L);
+        itemService.deleteById(1L);
+
+        assertFalse(itemService.findById(1L).isPresent());
+        verify(itemRepository, times(2)).findById(1L);
+        ItemChangeEvent event = (ItemChangeEvent) events.get(0);
+        assertEquals(ItemChangeType.DELETED, event.getType());
+        assertEquals(List.of(1L), event.getIds());
+    }
+
     @Test
     void save_ShouldReturnSavedItem() {
         Item item = new Item();
+        item.setId(1L);
         item.setName("Test Item");
 
         when(itemRepository.save(item)).thenReturn(item);
@@ -75,6 +299,29 @@ class ItemServiceTests {
         verify(itemRepository, times(1)).save(item);
     }
 
+    @Test
+    void save_ShouldPublishCreatedOrUpdatedEvent() {
+        Item created = new Item(null, "new", null, ItemStatus.NEW, null, null);
+        Item existing = new Item(2L, "existing", null, ItemStatus.NEW, null, null);
+        when(itemRepository.save(created)).thenAnswer(invocation -> {
+            created.setId(1L);
+            return created;
+        });
+        when(itemRepository.findStatusById(2L)).thenReturn(Optional.of(ItemStatus.NEW));
+        when(itemRepository.save(existing)).thenReturn(existing);
+
+        itemService.save(created);
+        itemService.save(existing);
+
+        assertEquals(2, events.size());
+        ItemChangeEvent first = (ItemChangeEvent) events.get(0);
+        ItemChangeEvent second = (ItemChangeEvent) events.get(1);
+        assertEquals(ItemChangeType.CREATED, first.getType());
+        assertEquals(List.of(1L), first.getIds());
+        assertEquals(ItemChangeType.UPDATED, second.getType());
+        assertSame(existing, second.getItems().get(0));
+    }
+
     @Test
     void save_ShouldThrowException_WhenRepositoryFails() {
         Item item = new Item();
@@ -88,6 +335,125 @@ class ItemServiceTests {
         verify(itemRepository, times(1)).save(item);
     }
 
+    @Test
+    void save_ShouldRejectIllegalStatusTransition() {
+        Item item = new Item(1L, "archived", null, ItemStatus.NEW, null, null);
+        when(itemRepository.findStatusById(1L)).thenReturn(Optional.of(ItemStatus.ARCHIVED));
+
+        assertThrows(IllegalStateException.class, () -> itemService.save(item));
+
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void save_ShouldAllowValidStatusTransition() {
+        Item item = new Item(1L, "reopened", null, ItemStatus.NEW, null, null);
+        when(itemRepository.findStatusById(1L)).thenReturn(Optional.of(ItemStatus.PROCESSED));
+        when(itemRepository.save(item)).thenReturn(item);
+
+        assertSame(item, itemService.save(item));
+    }
+
+    @Test
+    void update_ShouldIssueSingleConditionalUpdate_WhenVersionGiven() {
+        Item item = new Item(null, "renamed", null, ItemStatus.PROCESSED, null, null);
+        when(itemRepository.updateIfVersionMatches(1L, 3L, "renamed", null, ItemStatus.PROCESSED, null,
+                ItemStatus.sourcesOf(ItemStatus.PROCESSED))).thenReturn(1);
+
+        Item updated = itemService.update(1L, item, 3L);
+
+        assertEquals(1L, updated.getId());
+        assertEquals(4L, updated.getVersion());
+        assertSame(updated, itemCache.getIfPresent(1L));
+        verify(itemRepository, never()).findById(anyLong());
+        verify(itemRepository, never()).findVersionById(anyLong());
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void update_ShouldFlushBufferedStatusChangeFirst() {
+        Item item = new Item(null, "renamed", null, ItemStatus.ARCHIVED, null, null);
+        when(writeBehind.pendingStatus(1L)).thenReturn(Optional.of(ItemStatus.PROCESSED));
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.of(4L));
+        when(itemRepository.updateIfVersionMatches(eq(1L), eq(4L), any(), any(), any(), any(), anyCollection())).thenReturn(1);
+
+        itemService.update(1L, item, null);
+
+        InOrder inOrder = inOrder(writeBehind, itemRepository);
+        inOrder.verify(writeBehind).flush();
+        inOrder.verify(itemRepository).findVersionById(1L);
+    }
+
+    @Test
+    void updateStatus_ShouldBufferChangeWithStoredVersion_WhenWriteBehindIsEnabled() {
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(itemRepository.findStatusAndVersionById(1L)).thenReturn(Optional.of(statusAndVersion(ItemStatus.NEW, 7L)));
+
+        assertTrue(itemService.updateStatus(1L, ItemStatus.ARCHIVED));
+
+        verify(writeBehind).submit(1L, ItemStatus.NEW, 7L, ItemStatus.ARCHIVED);
+        verify(itemRepository, never()).updateStatuses(anyCollection(), any(), any(), any());
+    }
+
+    @Test
+    void update_ShouldUseCurrentVersion_WhenNoVersionGiven() {
+        Item item = new Item(null, "renamed", null, ItemStatus.NEW, null, null);
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.of(5L));
+        when(itemRepository.updateIfVersionMatches(eq(1L), eq(5L), any(), any(), any(), any(), anyCollection())).thenReturn(1);
+
+        assertEquals(6L, itemService.update(1L, item, null).getVersion());
+    }
+
+    @Test
+    void update_ShouldThrowOptimisticLockingFailure_WhenVersionIsStale() {
+        when(itemRepository.updateIfVersionMatches(anyLong(), anyLong(), any(), any(), any(), any(), anyCollection())).thenReturn(0);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "n", null, ItemStatus.NEW, null, 4L)));
+
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> itemService.update(1L, new Item(null, "n", null, ItemStatus.NEW, null, null), 3L));
+        assertNull(itemCache.getIfPresent(1L));
+    }
+
+    @Test
+    void update_ShouldThrowIllegalStateException_WhenTransitionIsIllegal() {
+        when(itemRepository.updateIfVersionMatches(anyLong(), anyLong(), any(), any(), any(), any(), anyCollection())).thenReturn(0);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "n", null, ItemStatus.ARCHIVED, null, 3L)));
+
+        assertThrows(IllegalStateException.class,
+                () -> itemService.update(1L, new Item(null, "n", null, ItemStatus.NEW, null, null), 3L));
+    }
+
+    @Test
+    void update_ShouldThrowNoSuchElementException_WhenItemDoesNotExist() {
+        when(itemRepository.findVersionById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(NoSuchElementException.class,
+                () -> itemService.update(1L, new Item(null, "n", null, ItemStatus.NEW, null, null), null));
+        verify(itemRepository, never()).updateIfVersionMatches(anyLong(), anyLong(), any(), any(), any(), any(), anyCollection());
+    }
+
+    @Test
+    void findVersion_ShouldPreferCacheAndFallBackToVersionColumn() {
+        itemCache.put(1L, new Item(1L, "cached", null, ItemStatus.NEW, null, 7L));
+        when(itemRepository.findVersionById(2L)).thenReturn(Optional.of(3L));
+
+        assertEquals(Optional.of(7L), itemService.findVersion(1L));
+        assertEquals(Optional.of(3L), itemService.findVersion(2L));
+        verify(itemRepository, never()).findVersionById(1L);
+        verify(itemRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void itemStatus_ShouldOnlyAllowDefinedTransitions() {
+        assertTrue(ItemStatus.NEW.canTransitionTo(ItemStatus.PROCESSED));
+        assertTrue(ItemStatus.PROCESSED.canTransitionTo(ItemStatus.PROCESSED));
+        assertTrue(ItemStatus.PROCESSED.canTransitionTo(ItemStatus.NEW));
+        assertFalse(ItemStatus.ARCHIVED.canTransitionTo(ItemStatus.NEW));
+        assertFalse(ItemStatus.NEW.canTransitionTo(null));
+        assertEquals(EnumSet.of(ItemStatus.NEW, ItemStatus.PROCESSED), ItemStatus.sourcesOf(ItemStatus.PROCESSED));
+        assertEquals(ItemStatus.ARCHIVED, ItemStatus.fromCode(ItemStatus.ARCHIVED.getCode()));
+    }
+
     @Test
     void deleteById_ShouldDeleteItem_WhenItemExists() {
         Long id = 1L;
@@ -112,4 +478,392 @@ class ItemServiceTests {
         verify(itemRepository, never()).deleteById(id);
     }
 
+    @Test
+    void processItems_ShouldPageThroughIdsAndReportCounts() throws Exception {
+        Item first = new Item();
+        first.setId(1L);
+        first.setStatus(ItemStatus.NEW);
+        Item third = new Item();
+        third.setId(3L);
+        third.setStatus(ItemStatus.PROCESSED);
+        when(itemRepository.findIdsAfter(Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findIdsAfter(2L, Pageable.ofSize(2))).thenReturn(List.of(3L));
+        when(itemRepository.findIdsAfter(3L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(first));
+        when(itemRepository.findById(2L)).thenReturn(Optional.empty());
+        when(itemRepository.findById(3L)).thenReturn(Optional.of(third));
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        List<Item> sink = new ArrayList<>();
+
+        ProcessingResult result = itemService.processItems(sink::add).get();
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(1, result.getFailed());
+        assertEquals(List.of(first, third), sink);
+        assertEquals(ItemStatus.PROCESSED, third.getStatus());
+        verify(itemRepository, never()).findAllIds();
+        assertEquals(2, meterRegistry.get("items.processing.item").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("items.processing.item").tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void processItems_ShouldCountArchivedItemsAsFailed() throws Exception {
+        Item archived = new Item(1L, "archived", null, ItemStatus.ARCHIVED, null, null);
+        when(itemRepository.findIdsAfter(Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(1L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(archived));
+
+        ProcessingResult result = itemService.processItems(item -> { }).get();
+
+        assertEquals(0, result.getProcessed());
+        assertEquals(1, result.getFailed());
+        assertEquals(ItemStatus.ARCHIVED, archived.getStatus());
+        verify(itemRepository, never()).save(any());
+        verify(failureService, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    void processItems_ShouldResumeAfterStartPoint_AndNotRewriteProcessedItems() throws Exception {
+        Item done = new Item(6L, "done", null, ItemStatus.PROCESSED, null, 1L);
+        when(itemRepository.findIdsAfter(5L, Pageable.ofSize(2))).thenReturn(List.of(6L));
+        when(itemRepository.findIdsAfter(6L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(6L)).thenReturn(Optional.of(done));
+        List<Long> safePoints = new ArrayList<>();
+
+        ProcessingResult result = itemService.processItems(item -> { }, () -> false, 5L, safePoints::add).get();
+
+        assertEquals(1, result.getProcessed());
+        assertEquals(List.of(6L), safePoints);
+        verify(itemRepository, never()).findIdsAfter(eq(Long.MIN_VALUE), any(Pageable.class));
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void processItems_ShouldBufferTransition_WhenWriteBehindIsEnabled() throws Exception {
+        Item item = new Item(1L, "a", null, ItemStatus.NEW, null, 0L);
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(itemRepository.findIdsAfter(Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(1L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+
+        ProcessingResult result = itemService.processItems(processed -> { }).get();
+
+        assertEquals(1, result.getProcessed());
+        verify(writeBehind).submit(1L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void processItems_ShouldSaveChangesOfStages_EvenWhenWriteBehindIsEnabled() throws Exception {
+        Item item = new Item(1L, "a", null, ItemStatus.NEW, null, 0L);
+        when(writeBehind.isEnabled()).thenReturn(true);
+        when(itemRepository.findIdsAfter(Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(1L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        itemService = new ItemService(itemRepository, Runnable::run, entityManager, itemCache, events::add, failureService,
+                writeBehind, stagesOf(processor("enrich", ItemProcessor.Kind.IO, staged -> staged.setDescription("enriched"))),
+                transactionTemplate, 2, 2, Duration.ofSeconds(10), meterRegistry);
+
+        ProcessingResult result = itemService.processItems(processed -> { }).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, result.getProcessed());
+        assertEquals("enriched", item.getDescription());
+        assertEquals(ItemStatus.PROCESSED, item.getStatus());
+        verify(itemRepository, times(1)).save(item);
+        verify(writeBehind, never()).submit(any(), any(), any(), any());
+    }
+
+    @Test
+    void processItems_ShouldNotRetryItemsRejectedByStage() throws Exception {
+        when(itemRepository.findIdsAfter(Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(1L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(new Item(1L, "a", null, ItemStatus.NEW, null, 0L)));
+        itemService = new ItemService(itemRepository, Runnable::run, entityManager, itemCache, events::add, failureService,
+                writeBehind, stagesOf(processor("validate", ItemProcessor.Kind.CPU, staged -> {
+                    throw new IllegalArgumentException("no email");
+                })), transactionTemplate, 2, 2, Duration.ofSeconds(10), meterRegistry);
+
+        ProcessingResult result = itemService.processItems(processed -> { }).get(5, TimeUnit.SECONDS);
+
+        assertEquals(1, result.getFailed());
+        verify(itemRepository, never()).save(any());
+        verify(failureService, never()).recordFailure(any(), any());
+    }
+
+    @Test
+    void updateStatus_ShouldWriteGuardedUpdate_WhenWriteBehindIsDisabled() {
+        when(itemRepository.findStatusAndVersionById(1L)).thenReturn(Optional.of(statusAndVersion(ItemStatus.NEW, 2L)));
+        when(itemRepository.updateStatuses(List.of(1L), ItemStatus.NEW, ItemStatus.ARCHIVED, 2L)).thenReturn(0);
+
+        assertThrows(OptimisticLockingFailureException.class, () -> itemService.updateStatus(1L, ItemStatus.ARCHIVED));
+
+        when(itemRepository.updateStatuses(List.of(1L), ItemStatus.NEW, ItemStatus.ARCHIVED, 2L)).thenReturn(1);
+        assertFalse(itemService.updateStatus(1L, ItemStatus.ARCHIVED));
+        verify(writeBehind, never()).submit(any(), any(), any(), any());
+    }
+
+    @Test
+    void processItems_ShouldRecordTransientFailuresForRetry() throws Exception {
+        DataAccessResourceFailureException error = new DataAccessResourceFailureException("connection lost");
+        when(itemRepository.findIdsAfter(Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L));
+        when(itemRepository.findIdsAfter(1L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(1L)).thenThrow(error);
+
+        ProcessingResult result = itemService.processItems(item -> { }).get();
+
+        assertEquals(1, result.getFailed());
+        assertEquals(0, result.getRetried());
+        verify(failureService, times(1)).recordFailure(1L, error);
+    }
+
+    @Test
+    void retryFailedItems_ShouldOnlyVisitFailedItemsAndResolveRecoveredOnes() throws Exception {
+        Item recovered = new Item(4L, "recovered", null, ItemStatus.NEW, null, null);
+        when(failureService.maxConcurrency()).thenReturn(1);
+        when(failureService.findItemIdsAfter(Long.MIN_VALUE, 2, true)).thenReturn(List.of(4L, 9L));
+        when(failureService.findItemIdsAfter(9L, 2, true)).thenReturn(List.of());
+        when(failureService.isPending(anyLong())).thenReturn(true);
+        when(itemRepository.findById(4L)).thenReturn(Optional.of(recovered));
+        when(itemRepository.findById(9L)).thenReturn(Optional.empty());
+        when(itemRepository.save(recovered)).thenReturn(recovered);
+
+        ProcessingResult result = itemService.retryFailedItems(item -> { }, () -> false, true).get();
+
+        assertEquals(1, result.getProcessed());
+        assertEquals(1, result.getFailed());
+        assertEquals(2, result.getRetried());
+        // item 9 no longer exists, so retrying it again cannot help either
+        verify(failureService).resolve(4L);
+        verify(failureService).resolve(9L);
+        verify(failureService, never()).recordFailure(any(), any());
+        verify(itemRepository, never()).findIdsAfter(any(), any());
+    }
+
+    @Test
+    void processItems_ShouldNeverExceedMaxInFlight() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            int maxInFlight = 3;
+            ItemService service = new ItemService(itemRepository, pool::execute, entityManager, itemCache, event -> { }, failureService, writeBehind, noStages(), transactionTemplate, 10, maxInFlight, Duration.ofSeconds(10), meterRegistry);
+            List<Long> ids = new ArrayList<>();
+            for (long id = 1; id <= 50; id++) {
+                ids.add(id);
+            }
+            when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+                long after = invocation.getArgument(0);
+                return ids.stream().filter(id -> id > after).limit(10).toList();
+            });
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger peak = new AtomicInteger();
+            when(itemRepository.findById(anyLong())).thenAnswer(invocation -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(2);
+                running.decrementAndGet();
+                Item item = new Item();
+                item.setId(invocation.getArgument(0));
+                item.setStatus(ItemStatus.NEW);
+                return Optional.of(item);
+            });
+            when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+            Queue<Item> sink = new ConcurrentLinkedQueue<>();
+
+            ProcessingResult result = service.processItems(sink::add).get(10, TimeUnit.SECONDS);
+
+            assertEquals(50, result.getProcessed());
+            assertEquals(50, sink.size());
+            assertTrue(peak.get() <= maxInFlight, "peak in-flight was " + peak.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void processItems_ShouldCompleteExceptionally_WhenPageLoadingFails() {
+        when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenThrow(new RuntimeException("DB down"));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> itemService.processItems(item -> { }).get());
+
+        assertEquals("DB down", exception.getCause().getMessage());
+    }
+
+    @Test
+    void processItems_ShouldCompleteExceptionally_WhenSinkThrows() {
+        when(itemRepository.findIdsAfter(Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findIdsAfter(2L, Pageable.ofSize(2))).thenReturn(List.of(3L));
+        when(itemRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Item(invocation.getArgument(0), "n", null, ItemStatus.PROCESSED, null, null)));
+
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> itemService.processItems(item -> {
+            throw new IllegalStateException("sink full");
+        }).get(5, TimeUnit.SECONDS));
+
+        assertEquals("sink full", exception.getCause().getMessage());
+        verify(itemRepository, never()).findIdsAfter(eq(2L), any(Pageable.class));
+    }
+
+    @Test
+    void processItems_ShouldNotGrowStack_WhenExecutorRunsTasksInline() throws Exception {
+        long total = 50_000;
+        when(itemRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long after = Math.max(0, invocation.<Long>getArgument(0));
+            return after >= total ? List.of() : List.of(after + 1, after + 2);
+        });
+        when(itemRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Item(invocation.getArgument(0), "n", null, ItemStatus.PROCESSED, null, null)));
+
+        ProcessingResult result = itemService.processItems(item -> { }).get(30, TimeUnit.SECONDS);
+
+        assertEquals(total, result.getProcessed());
+    }
+
+    @Test
+    void processNewItems_ShouldOnlyVisitUnprocessedItemsAboveHighWaterMark() throws Exception {
+        when(itemRepository.findIdsByStatusAfter(ItemStatus.NEW, Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L, 3L));
+        when(itemRepository.findIdsByStatusAfter(ItemStatus.NEW, 3L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Item(invocation.getArgument(0), "n", null, ItemStatus.NEW, null, null)));
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ProcessingResult first = itemService.processNewItems(item -> { }, () -> false).get();
+
+        assertEquals(2, first.getProcessed());
+        assertEquals(3L, itemService.processedHighWaterMark());
+        assertEquals(3.0, meterRegistry.get("items.processing.high-water-mark").gauge().value());
+
+        when(itemRepository.findIdsByStatusAfter(ItemStatus.NEW, 3L, Pageable.ofSize(2))).thenReturn(List.of(4L), List.of());
+
+        ProcessingResult second = itemService.processNewItems(item -> { }, () -> false).get();
+
+        assertEquals(1, second.getProcessed());
+        assertEquals(4L, itemService.processedHighWaterMark());
+        verify(itemRepository, never()).findIdsAfter(anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void processNewItems_ShouldKeepHighWaterMarkBelowLowestFailedItem() throws Exception {
+        when(itemRepository.findIdsByStatusAfter(ItemStatus.NEW, Long.MIN_VALUE, Pageable.ofSize(2))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.findIdsByStatusAfter(ItemStatus.NEW, 2L, Pageable.ofSize(2))).thenReturn(List.of(3L));
+        when(itemRepository.findIdsByStatusAfter(ItemStatus.NEW, 3L, Pageable.ofSize(2))).thenReturn(List.of());
+        when(itemRepository.findById(anyLong())).thenAnswer(invocation -> Optional.of(new Item(invocation.getArgument(0), "n", null, ItemStatus.NEW, null, null)));
+        when(itemRepository.findById(2L)).thenReturn(Optional.empty());
+        when(itemRepository.save(any(Item.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ProcessingResult result = itemService.processNewItems(item -> { }, () -> false).get();
+
+        assertEquals(2, result.getProcessed());
+        assertEquals(1, result.getFailed());
+        assertEquals(1L, itemService.processedHighWaterMark());
+    }
+
+    @Test
+    void processNewItems_ShouldNotAdvanceHighWaterMark_WhenCancelled() throws Exception {
+        when(itemRepository.findIdsByStatusAfter(any(ItemStatus.class), anyLong(), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+
+        ProcessingResult result = itemService.processNewItems(item -> { }, () -> true).get();
+
+        assertEquals(0, result.getProcessed());
+        assertEquals(Long.MIN_VALUE, itemService.processedHighWaterMark());
+    }
+
+    @Test
+    void processItemsInBulk_ShouldUpdateEachLockedChunkWithOneStatement() {
+        when(itemRepository.lockIdsByStatusInAfter(eq(PROCESSABLE), eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(itemRepository.lockIdsByStatusInAfter(eq(PROCESSABLE), eq(2L), any(Pageable.class))).thenReturn(List.of(5L));
+        when(itemRepository.lockIdsByStatusInAfter(eq(PROCESSABLE), eq(5L), any(Pageable.class))).thenReturn(List.of());
+        List<List<Long>> chunks = new ArrayList<>();
+
+        long processed = itemService.processItemsInBulk(2, chunks::add);
+
+        assertEquals(3, processed);
+        assertEquals(List.of(List.of(1L, 2L), List.of(5L)), chunks);
+        verify(itemRepository, times(1)).updateStatusOfIds(ItemStatus.PROCESSED, PROCESSABLE, List.of(1L, 2L));
+        verify(itemRepository, times(1)).updateStatusOfIds(ItemStatus.PROCESSED, PROCESSABLE, List.of(5L));
+        // one transaction per chunk, plus the one that found nothing left
+        verify(transactionManager, times(3)).commit(any());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(itemRepository, never()).save(any());
+    }
+
+    @Test
+    void processItemsInBulk_ShouldStop_WhenSinkThrows() {
+        when(itemRepository.lockIdsByStatusInAfter(eq(PROCESSABLE), eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+
+        assertThrows(UncheckedIOException.class, () -> itemService.processItemsInBulk(2, chunk -> {
+            throw new UncheckedIOException(new IOException("client went away"));
+        }));
+
+        verify(itemRepository, times(1)).lockIdsByStatusInAfter(anyCollection(), anyLong(), any(Pageable.class));
+    }
+
+    @Test
+    void processItemsInBulk_ShouldReturnZero_WhenNoItems() {
+        when(itemRepository.lockIdsByStatusInAfter(anyCollection(), anyLong(), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, itemService.processItemsInBulk(100, chunk -> fail("nothing to stream")));
+
+        verify(itemRepository, never()).updateStatusOfIds(any(ItemStatus.class), anyCollection(), anyCollection());
+    }
+
+    @Test
+    void processItemsInBulk_ShouldInvalidateCachedItems() throws Exception {
+        Item item = new Item();
+        item.setId(1L);
+        item.setStatus(ItemStatus.NEW);
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.lockIdsByStatusInAfter(eq(PROCESSABLE), eq(Long.MIN_VALUE), any(Pageable.class))).thenReturn(List.of(1L));
+        when(itemRepository.lockIdsByStatusInAfter(eq(PROCESSABLE), eq(1L), any(Pageable.class))).thenReturn(List.of());
+
+        itemService.findById(1L);
+        itemService.processItemsInBulk(10, chunk -> { });
+        itemService.findById(1L);
+
+        verify(itemRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void processItemsInBulk_ShouldThrowIllegalArgumentException_WhenChunkSizeNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> itemService.processItemsInBulk(0, chunk -> { }));
+        verify(itemRepository, never()).lockIdsByStatusInAfter(anyCollection(), anyLong(), any(Pageable.class));
+    }
+
+
+    private ItemProcessingStages noStages() {
+        return stagesOf();
+    }
+
+    private ItemProcessingStages stagesOf(ItemProcessor... processors) {
+        return new ItemProcessingStages(List.of(processors), Runnable::run, ForkJoinPool.commonPool(),
+                new MockEnvironment(), meterRegistry);
+    }
+
+    private static ItemRepository.StatusAndVersion statusAndVersion(ItemStatus status, Long version) {
+        return new ItemRepository.StatusAndVersion() {
+            @Override
+            public ItemStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+
+    private static ItemProcessor processor(String name, ItemProcessor.Kind kind, Consumer<Item> action) {
+        return new ItemProcessor() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Kind getKind() {
+                return kind;
+            }
+
+            @Override
+            public void process(Item item) {
+                action.accept(item);
+            }
+        };
+    }
 }
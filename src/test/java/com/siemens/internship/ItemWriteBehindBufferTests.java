@@ -0,0 +1,163 @@
+package com.siemens.internship;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemChangeEvent;
+import com.siemens.internship.model.ItemChangeType;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.service.ItemWriteBehindBuffer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ItemWriteBehindBufferTests {
+
+    @Mock
+    ItemRepository itemRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    Cache<Long, Item> itemCache;
+
+    List<Object> events;
+
+    ItemWriteBehindBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        itemCache = Caffeine.newBuilder().build();
+        events = new ArrayList<>();
+        when(itemRepository.updateStatuses(anyCollection(), any(), any(), any()))
+                .thenAnswer(invocation -> ((Collection<?>) invocation.getArgument(0)).size());
+        buffer = new ItemWriteBehindBuffer(itemRepository, itemCache, new TransactionTemplate(transactionManager),
+                events::add, true, 100, 2, new SimpleMeterRegistry());
+        buffer.start();
+    }
+
+    @Test
+    void flush_ShouldCoalesceRepeatedChangesOfAnItemIntoOneWrite() {
+        for (int i = 0; i < 50; i++) {
+            buffer.submit(1L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+            buffer.submit(1L, ItemStatus.PROCESSED, 0L, ItemStatus.ARCHIVED);
+        }
+        assertEquals(Optional.of(ItemStatus.ARCHIVED), buffer.pendingStatus(1L));
+
+        assertEquals(1, buffer.flush());
+
+        verify(itemRepository, times(1)).updateStatuses(List.of(1L), ItemStatus.NEW, ItemStatus.ARCHIVED, 0L);
+        verify(transactionManager, times(1)).commit(any());
+        assertEquals(0, buffer.pendingCount());
+        ItemChangeEvent event = (ItemChangeEvent) events.get(0);
+        assertEquals(ItemChangeType.UPDATED, event.getType());
+        assertEquals(List.of(1L), event.getIds());
+    }
+
+    @Test
+    void flush_ShouldWriteOneStatementPerChangePerTransaction() {
+        buffer.submit(1L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        buffer.submit(2L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        buffer.submit(3L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        // changed back before the flush: nothing to write
+        buffer.submit(4L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        buffer.submit(4L, ItemStatus.PROCESSED, 0L, ItemStatus.NEW);
+
+        assertEquals(3, buffer.flush());
+
+        verify(transactionManager, times(2)).commit(any());
+        verify(itemRepository, never()).updateStatuses(anyCollection(), eq(ItemStatus.NEW), eq(ItemStatus.NEW), any());
+        assertTrue(events.stream().allMatch(event -> ((ItemChangeEvent) event).getType() == ItemChangeType.PROCESSED));
+    }
+
+    @Test
+    void submit_ShouldStartFromStatusBeingWritten_WhenFlushIsRunning() {
+        buffer.submit(1L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        doAnswer(invocation -> {
+            // a request changing the item while the flush is writing it
+            ItemStatus current = buffer.pendingStatus(1L).orElseThrow();
+            buffer.submit(1L, current, 0L, ItemStatus.ARCHIVED);
+            return 1;
+        }).when(itemRepository).updateStatuses(List.of(1L), ItemStatus.NEW, ItemStatus.PROCESSED, 0L);
+
+        assertEquals(1, buffer.flush());
+        assertEquals(Optional.of(ItemStatus.ARCHIVED), buffer.pendingStatus(1L));
+        assertEquals(1, buffer.flush());
+
+        // guarded by the version the first write leaves behind, not the one the request read
+        verify(itemRepository, times(1)).updateStatuses(List.of(1L), ItemStatus.PROCESSED, ItemStatus.ARCHIVED, 1L);
+        assertEquals(Optional.empty(), buffer.pendingStatus(1L));
+    }
+
+    @Test
+    void flush_ShouldDropChange_WhenItemWasWrittenSinceItWasBuffered() {
+        buffer.submit(1L, ItemStatus.NEW, 3L, ItemStatus.PROCESSED);
+        buffer.submit(2L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        // item 1 was updated by a PUT after its change was buffered
+        when(itemRepository.updateStatuses(List.of(1L), ItemStatus.NEW, ItemStatus.PROCESSED, 3L)).thenReturn(0);
+
+        assertEquals(1, buffer.flush());
+
+        verify(itemRepository, times(1)).updateStatuses(List.of(2L), ItemStatus.NEW, ItemStatus.PROCESSED, 0L);
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void submit_ShouldFlush_WhenMaxPendingIsReached() {
+        buffer = new ItemWriteBehindBuffer(itemRepository, itemCache, new TransactionTemplate(transactionManager),
+                events::add, true, 2, 100, new SimpleMeterRegistry());
+        buffer.start();
+
+        buffer.submit(1L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        verify(itemRepository, never()).updateStatuses(anyCollection(), any(), any(), any());
+        buffer.submit(2L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+
+        verify(itemRepository, times(1)).updateStatuses(anyCollection(), any(), any(), any());
+        assertEquals(0, buffer.pendingCount());
+    }
+
+    @Test
+    void flush_ShouldKeepChanges_WhenWriteFails() {
+        buffer.submit(1L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        doThrow(new DataAccessResourceFailureException("connection lost"))
+                .when(itemRepository).updateStatuses(anyCollection(), any(), any(), any());
+
+        assertEquals(0, buffer.flush());
+        buffer.submit(1L, ItemStatus.PROCESSED, 0L, ItemStatus.ARCHIVED);
+
+        assertEquals(1, buffer.pendingCount());
+        doReturn(1).when(itemRepository).updateStatuses(anyCollection(), any(), any(), any());
+        assertEquals(1, buffer.flush());
+        verify(itemRepository, times(1)).updateStatuses(List.of(1L), ItemStatus.NEW, ItemStatus.ARCHIVED, 0L);
+    }
+
+    @Test
+    void stop_ShouldFlushAndWriteLaterChangesThrough() {
+        buffer.submit(1L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+
+        buffer.stop();
+        verify(itemRepository, times(1)).updateStatuses(List.of(1L), ItemStatus.NEW, ItemStatus.PROCESSED, 0L);
+
+        buffer.submit(2L, ItemStatus.NEW, 0L, ItemStatus.PROCESSED);
+        verify(itemRepository, times(1)).updateStatuses(List.of(2L), ItemStatus.NEW, ItemStatus.PROCESSED, 0L);
+        assertEquals(0, buffer.pendingCount());
+    }
+}
@@ -0,0 +1,125 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ItemStatus;
+import com.siemens.internship.model.PartitionedRunStatus;
+import com.siemens.internship.model.ProcessingChunk;
+import com.siemens.internship.model.ProcessingChunkState;
+import com.siemens.internship.repository.ItemRepository;
+import com.siemens.internship.repository.ProcessingChunkRepository;
+import com.siemens.internship.service.PartitionedProcessingService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two application contexts sharing one database, standing in for two replicas.
+ */
+class PartitionedProcessingTests {
+
+    static ConfigurableApplicationContext nodeA;
+
+    static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(InternshipApplication.class)
+                .web(WebApplicationType.NONE)
+                // arguments, unlike default properties, take precedence over application.properties
+                .run("--spring.datasource.url=jdbc:h2:mem:partitioned;DB_CLOSE_DELAY=-1",
+                        "--items.partition.node-id=" + nodeId,
+                        "--items.partition.chunk-size=10",
+                        "--items.partition.max-chunks-per-node=1",
+                        "--items.partition.poll-interval=PT0.1S",
+                        "--items.partition.max-attempts=3");
+    }
+
+    @Test
+    void run_ShouldSplitWorkAcrossNodesAndTransitionEveryItemOnce() throws Exception {
+        ItemRepository itemRepository = nodeA.getBean(ItemRepository.class);
+        List<Long> ids = itemRepository.saveAll(IntStream.range(0, 200)
+                        .mapToObj(i -> new Item(null, "item" + i, null, ItemStatus.NEW, null, null))
+                        .toList())
+                .stream().map(Item::getId).toList();
+
+        // the other test may have left items behind
+        long total = itemRepository.count();
+        ItemRepository.IdRange range = itemRepository.findIdRange();
+
+        PartitionedRunStatus started = nodeA.getBean(PartitionedProcessingService.class).startRun();
+        PartitionedRunStatus run = awaitDone(started.getRunId());
+
+        assertEquals((range.getLast() - range.getFirst()) / 10 + 1, run.getChunks());
+        assertEquals(total, run.getProcessed());
+        assertEquals(2, run.getNodes());
+        assertTrue(itemRepository.findAllById(ids).stream()
+                .allMatch(item -> item.getStatus() == ItemStatus.PROCESSED && item.getVersion() == 1));
+    }
+
+    @Test
+    void run_ShouldTakeOverChunkWhoseLeaseExpired() throws Exception {
+        ItemRepository itemRepository = nodeA.getBean(ItemRepository.class);
+        Item item = itemRepository.save(new Item(null, "orphan", null, ItemStatus.NEW, null, null));
+        ProcessingChunkRepository chunkRepository = nodeA.getBean(ProcessingChunkRepository.class);
+        chunkRepository.save(new ProcessingChunk(null, "crashed-run", item.getId(), item.getId(),
+                ProcessingChunkState.CLAIMED, "node-gone", Instant.now().minusSeconds(1), null, 1, 0, 0));
+
+        awaitDone("crashed-run");
+
+        ProcessingChunk chunk = chunkRepository.findAll().stream()
+                .filter(candidate -> candidate.getRunId().equals("crashed-run")).findFirst().orElseThrow();
+        assertNotEquals("node-gone", chunk.getOwner());
+        assertEquals(2, chunk.getAttempts());
+        assertEquals(ItemStatus.PROCESSED, itemRepository.findById(item.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void run_ShouldMarkChunkFailed_WhenItWasAttemptedTooOften() throws Exception {
+        ItemRepository itemRepository = nodeA.getBean(ItemRepository.class);
+        Item item = itemRepository.save(new Item(null, "poison", null, ItemStatus.NEW, null, null));
+        ProcessingChunkRepository chunkRepository = nodeA.getBean(ProcessingChunkRepository.class);
+        // its nodes died three times while working on it
+        chunkRepository.save(new ProcessingChunk(null, "poisoned-run", item.getId(), item.getId(),
+                ProcessingChunkState.CLAIMED, "node-gone", Instant.now().minusSeconds(1), null, 3, 0, 0));
+
+        PartitionedRunStatus run = awaitDone("poisoned-run");
+
+        assertEquals(1, run.getFailedChunks());
+        assertEquals(0, run.getDone());
+        assertEquals(ItemStatus.NEW, itemRepository.findById(item.getId()).orElseThrow().getStatus());
+    }
+
+    private static PartitionedRunStatus awaitDone(String runId) throws InterruptedException {
+        PartitionedProcessingService service = nodeB.getBean(PartitionedProcessingService.class);
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            PartitionedRunStatus run = service.findRun(runId).orElseThrow();
+            if (run.getDone() + run.getFailedChunks() == run.getChunks()) {
+                return run;
+            }
+            Thread.sleep(100);
+        }
+        fail("Run " + runId + " did not complete in time");
+        return null;
+    }
+}
@@ -0,0 +1,76 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ProcessingFailure;
+import com.siemens.internship.repository.ProcessingFailureRepository;
+import com.siemens.internship.service.ProcessingFailureService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ProcessingFailureServiceTests {
+
+    @Mock
+    ProcessingFailureRepository failureRepository;
+
+    ProcessingFailureService failureService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        failureService = new ProcessingFailureService(failureRepository, 3, Duration.ofSeconds(10),
+                Duration.ofSeconds(15), 2, new SimpleMeterRegistry());
+        when(failureRepository.save(any(ProcessingFailure.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void recordFailure_ShouldScheduleFirstRetryAfterInitialBackoff() {
+        Instant before = Instant.now();
+
+        ProcessingFailure failure = failureService.recordFailure(1L, new RuntimeException("boom"));
+
+        assertEquals(1, failure.getAttempts());
+        assertEquals("java.lang.RuntimeException: boom", failure.getLastError());
+        // 10s minus up to 20% jitter
+        assertFalse(failure.getNextAttemptAt().isBefore(before.plusSeconds(8)));
+        assertFalse(failure.getNextAttemptAt().isAfter(Instant.now().plusSeconds(10)));
+        assertTrue(failureService.isPending(1L));
+    }
+
+    @Test
+    void recordFailure_ShouldCapBackoffAndStopAfterMaxAttempts() {
+        Instant now = Instant.now();
+        ProcessingFailure failure = new ProcessingFailure(1L, 1, now, now, now, "earlier");
+        when(failureRepository.findById(1L)).thenReturn(Optional.of(failure));
+
+        failureService.recordFailure(1L, new RuntimeException("again"));
+        // 20s exceeds the 15s cap
+        assertFalse(failure.getNextAttemptAt().isAfter(Instant.now().plusSeconds(15)));
+
+        failureService.recordFailure(1L, new RuntimeException("again"));
+        assertEquals(3, failure.getAttempts());
+        assertNull(failure.getNextAttemptAt());
+    }
+
+    @Test
+    void resolve_ShouldOnlyDeletePendingFailures() {
+        failureService.recordFailure(1L, new RuntimeException("boom"));
+
+        failureService.resolve(1L);
+        failureService.resolve(2L);
+
+        assertFalse(failureService.isPending(1L));
+        assertFalse(failureService.hasPending());
+        verify(failureRepository, times(1)).deleteById(1L);
+        verify(failureRepository, never()).deleteById(2L);
+    }
+}
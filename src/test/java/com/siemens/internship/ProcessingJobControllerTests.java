@@ -0,0 +1,118 @@
+package com.siemens.internship;
+
+import com.siemens.internship.controller.ProcessingJobController;
+import com.siemens.internship.model.ProcessingJobResults;
+import com.siemens.internship.model.ProcessingJobState;
+import com.siemens.internship.model.ProcessingJobStatus;
+import com.siemens.internship.model.ProcessingMode;
+import com.siemens.internship.service.ProcessingJob;
+import com.siemens.internship.service.ProcessingJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ProcessingJobControllerTests {
+
+    @Mock
+    private ProcessingJobService processingJobService;
+
+    @Mock
+    private ProcessingJob job;
+
+    @InjectMocks
+    private ProcessingJobController processingJobController;
+
+    private ProcessingJobStatus status;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        status = new ProcessingJobStatus("job-1", ProcessingMode.FULL, ProcessingJobState.RUNNING, 2, 0, 0, Instant.now(), null, null);
+        when(job.getId()).thenReturn("job-1");
+        when(job.toStatus()).thenReturn(status);
+    }
+
+    @Test
+    void startJob_ShouldReturnAcceptedWithLocation() {
+        when(processingJobService.startOrJoin(ProcessingMode.FULL)).thenReturn(job);
+
+        ResponseEntity<ProcessingJobStatus> response = processingJobController.startJob(ProcessingMode.FULL);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(URI.create("/api/items/process/jobs/job-1"), response.getHeaders().getLocation());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void getJob_ShouldReturnOK_WhenJobExists() {
+        when(processingJobService.findJob("job-1")).thenReturn(Optional.of(job));
+
+        ResponseEntity<ProcessingJobStatus> response = processingJobController.getJob("job-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void getJob_ShouldReturnNotFound_WhenJobUnknown() {
+        when(processingJobService.findJob(anyString())).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, processingJobController.getJob("missing").getStatusCode());
+    }
+
+    @Test
+    void cancelJob_ShouldReturnAccepted_WhenJobExists() {
+        when(processingJobService.cancel("job-1")).thenReturn(Optional.of(job));
+
+        ResponseEntity<ProcessingJobStatus> response = processingJobController.cancelJob("job-1");
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        verify(processingJobService, times(1)).cancel("job-1");
+    }
+
+    @Test
+    void cancelJob_ShouldReturnNotFound_WhenJobUnknown() {
+        when(processingJobService.cancel(anyString())).thenReturn(Optional.empty());
+
+        assertEquals(HttpStatus.NOT_FOUND, processingJobController.cancelJob("missing").getStatusCode());
+    }
+
+    @Test
+    void getJobResults_ShouldReturnRequestedPage() {
+        when(processingJobService.findJob("job-1")).thenReturn(Optional.of(job));
+        when(job.processedCount()).thenReturn(5L);
+        when(processingJobService.findProcessedIds(job, 2L, 2)).thenReturn(List.of(3L, 4L));
+        when(processingJobService.findProcessedIds(job, 4L, 2)).thenReturn(List.of(5L));
+
+        ResponseEntity<ProcessingJobResults> response = processingJobController.getJobResults("job-1", 2L, 2);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(List.of(3L, 4L), response.getBody().getItemIds());
+        assertEquals(5L, response.getBody().getTotal());
+        assertEquals(4L, response.getBody().getNextAfter());
+
+        ResponseEntity<ProcessingJobResults> lastPage = processingJobController.getJobResults("job-1", 4L, 2);
+        assertEquals(List.of(5L), lastPage.getBody().getItemIds());
+        assertNull(lastPage.getBody().getNextAfter());
+    }
+
+    @Test
+    void getJobResults_ShouldReturnBadRequest_WhenSizeInvalid() {
+        assertEquals(HttpStatus.BAD_REQUEST, processingJobController.getJobResults("job-1", null, 0).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, processingJobController.getJobResults("job-1", null, 1001).getStatusCode());
+        verify(processingJobService, never()).findJob(anyString());
+    }
+}
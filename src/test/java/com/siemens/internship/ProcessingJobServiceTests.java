@@ -0,0 +1,253 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.Item;
+import com.siemens.internship.model.ProcessingCheckpoint;
+import com.siemens.internship.model.ProcessingJobResult;
+import com.siemens.internship.model.ProcessingJobState;
+import com.siemens.internship.model.ProcessingMode;
+import com.siemens.internship.model.ProcessingResult;
+import com.siemens.internship.repository.ProcessingCheckpointRepository;
+import com.siemens.internship.repository.ProcessingJobResultRepository;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingCheckpointService;
+import com.siemens.internship.service.ProcessingJob;
+import com.siemens.internship.service.ProcessingJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProcessingJobServiceTests {
+
+    @Mock
+    ItemService itemService;
+
+    @Mock
+    ProcessingCheckpointRepository checkpointRepository;
+
+    @Mock
+    ProcessingJobResultRepository resultRepository;
+
+    ProcessingJobService processingJobService;
+
+    CompletableFuture<ProcessingResult> run;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        processingJobService = new ProcessingJobService(itemService,
+                new ProcessingCheckpointService(checkpointRepository, Duration.ofSeconds(5)), resultRepository, 2, 2);
+        run = new CompletableFuture<>();
+        when(itemService.processItems(any(), any(), anyLong(), any())).thenAnswer(invocation -> run);
+    }
+
+    @Test
+    void startOrJoin_ShouldShareRunningJob() {
+        ProcessingJob first = processingJobService.startOrJoin();
+        ProcessingJob second = processingJobService.startOrJoin();
+
+        assertSame(first, second);
+        assertEquals(ProcessingJobState.RUNNING, first.getState());
+        verify(itemService, times(1)).processItems(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void startOrJoin_ShouldNotLeaveJobBehind_WhenRunFailsToStart() {
+        when(checkpointRepository.findById(anyString())).thenThrow(new IllegalStateException("DB down"))
+                .thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> processingJobService.startOrJoin());
+        ProcessingJob job = processingJobService.startOrJoin();
+
+        assertEquals(ProcessingJobState.RUNNING, job.getState());
+        verify(itemService, times(1)).processItems(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void startOrJoin_ShouldRunIncrementalProcessing_WhenRequested() {
+        when(itemService.processNewItems(any(), any())).thenAnswer(invocation -> run);
+
+        ProcessingJob job = processingJobService.startOrJoin(ProcessingMode.INCREMENTAL);
+
+        assertEquals(ProcessingMode.INCREMENTAL, job.toStatus().getMode());
+        verify(itemService, times(1)).processNewItems(any(), any());
+        verify(itemService, never()).processItems(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void startOrJoin_ShouldRetryOnlyFailedItems_WhenRetryRequested() {
+        when(itemService.retryFailedItems(any(), any(), anyBoolean())).thenAnswer(invocation -> run);
+
+        ProcessingJob job = processingJobService.startOrJoin(ProcessingMode.RETRY);
+        run.complete(new ProcessingResult(2, 1, 3));
+
+        assertEquals(3, job.toStatus().getRetried());
+        verify(itemService, times(1)).retryFailedItems(any(), any(), eq(false));
+        verify(itemService, never()).processItems(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startOrJoin_ShouldRecordResultsAndComplete() {
+        ArgumentCaptor<Consumer<Item>> sink = ArgumentCaptor.forClass(Consumer.class);
+        ProcessingJob job = processingJobService.startOrJoin();
+        verify(itemService).processItems(sink.capture(), any(), anyLong(), any());
+
+        for (long id = 1; id <= 3; id++) {
+            Item item = new Item();
+            item.setId(id);
+            sink.getValue().accept(item);
+        }
+        // the first batch of two is written while the job runs, the rest when it ends
+        verify(resultRepository, times(1)).saveAll(anyList());
+        assertEquals(ProcessingJobState.RUNNING, job.getState());
+        run.complete(new ProcessingResult(3, 1, 0));
+
+        assertEquals(ProcessingJobState.COMPLETED, job.getState());
+        assertEquals(3, job.toStatus().getProcessed());
+        assertEquals(1, job.toStatus().getFailed());
+        assertNotNull(job.toStatus().getFinishedAt());
+        ArgumentCaptor<List<ProcessingJobResult>> saved = ArgumentCaptor.forClass(List.class);
+        verify(resultRepository, times(2)).saveAll(saved.capture());
+        assertEquals(List.of(1L, 2L, 3L), saved.getAllValues().stream().flatMap(List::stream)
+                .peek(result -> assertEquals(job.getId(), result.getJobId()))
+                .map(ProcessingJobResult::getItemId).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startOrJoin_ShouldComplete_WhenResultsCannotBeSaved() {
+        ArgumentCaptor<Consumer<Item>> sink = ArgumentCaptor.forClass(Consumer.class);
+        when(resultRepository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+        ProcessingJob job = processingJobService.startOrJoin();
+        verify(itemService).processItems(sink.capture(), any(), anyLong(), any());
+
+        for (long id = 1; id <= 3; id++) {
+            Item item = new Item();
+            item.setId(id);
+            sink.getValue().accept(item);
+        }
+        run.complete(new ProcessingResult(3, 0, 0));
+
+        assertEquals(ProcessingJobState.COMPLETED, job.getState());
+        assertEquals(3, job.toStatus().getProcessed());
+    }
+
+    @Test
+    void findProcessedIds_ShouldPageResultsOfJob() {
+        ProcessingJob job = processingJobService.startOrJoin();
+        when(resultRepository.findItemIdsAfter(job.getId(), 4L, Pageable.ofSize(10))).thenReturn(List.of(5L, 9L));
+
+        assertEquals(List.of(5L, 9L), processingJobService.findProcessedIds(job, 4L, 10));
+    }
+
+    @Test
+    void startOrJoin_ShouldStartNewJob_WhenPreviousFinished() {
+        ProcessingJob first = processingJobService.startOrJoin();
+        run.complete(new ProcessingResult(0, 0, 0));
+        run = new CompletableFuture<>();
+
+        ProcessingJob second = processingJobService.startOrJoin();
+
+        assertNotSame(first, second);
+        assertTrue(processingJobService.findJob(first.getId()).isPresent());
+    }
+
+    @Test
+    void startOrJoin_ShouldEvictOldestFinishedJob_WhenRegistryIsFull() {
+        ProcessingJob first = processingJobService.startOrJoin();
+        run.complete(new ProcessingResult(0, 0, 0));
+        run = new CompletableFuture<>();
+        ProcessingJob second = processingJobService.startOrJoin();
+        run.complete(new ProcessingResult(0, 0, 0));
+        run = new CompletableFuture<>();
+
+        ProcessingJob third = processingJobService.startOrJoin();
+
+        assertTrue(processingJobService.findJob(first.getId()).isEmpty());
+        assertTrue(processingJobService.findJob(second.getId()).isPresent());
+        assertTrue(processingJobService.findJob(third.getId()).isPresent());
+        verify(resultRepository).deleteByJobId(first.getId());
+        verify(resultRepository, never()).deleteByJobId(second.getId());
+    }
+
+    @Test
+    void cancel_ShouldRaiseCancellationFlagAndFinishAsCancelled() {
+        ArgumentCaptor<BooleanSupplier> cancelled = ArgumentCaptor.forClass(BooleanSupplier.class);
+        ProcessingJob job = processingJobService.startOrJoin();
+        verify(itemService).processItems(any(), cancelled.capture(), anyLong(), any());
+        assertFalse(cancelled.getValue().getAsBoolean());
+
+        assertTrue(processingJobService.cancel(job.getId()).isPresent());
+        assertTrue(cancelled.getValue().getAsBoolean());
+        run.complete(new ProcessingResult(0, 0, 0));
+
+        assertEquals(ProcessingJobState.CANCELLED, job.getState());
+    }
+
+    @Test
+    void startOrJoin_ShouldResumeFullRunAfterCheckpoint_AndClearItOnCompletion() {
+        when(checkpointRepository.findById("full"))
+                .thenReturn(Optional.of(new ProcessingCheckpoint("full", 41L, "earlier", Instant.now())));
+
+        processingJobService.startOrJoin();
+        run.complete(new ProcessingResult(0, 0, 0));
+
+        verify(itemService).processItems(any(), any(), eq(41L), any());
+        verify(checkpointRepository).deleteById("full");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cancel_ShouldCheckpointSafePointOfFullRun() {
+        ArgumentCaptor<LongConsumer> progress =
+                ArgumentCaptor.forClass(LongConsumer.class);
+        ProcessingJob job = processingJobService.startOrJoin();
+        verify(itemService).processItems(any(), any(), eq(Long.MIN_VALUE), progress.capture());
+
+        progress.getValue().accept(7L);
+        processingJobService.cancel(job.getId());
+        run.complete(new ProcessingResult(7, 0, 0));
+
+        ArgumentCaptor<ProcessingCheckpoint> saved = ArgumentCaptor.forClass(ProcessingCheckpoint.class);
+        verify(checkpointRepository).save(saved.capture());
+        assertEquals(7L, saved.getValue().getLastItemId());
+        assertEquals(job.getId(), saved.getValue().getJobId());
+        verify(checkpointRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void cancel_ShouldReturnEmpty_WhenJobUnknown() {
+        assertTrue(processingJobService.cancel("missing").isEmpty());
+    }
+
+    @Test
+    void startOrJoin_ShouldMarkJobFailed_WhenRunFails() {
+        ProcessingJob job = processingJobService.startOrJoin();
+
+        run.completeExceptionally(new RuntimeException("DB down"));
+
+        assertEquals(ProcessingJobState.FAILED, job.getState());
+        assertEquals("DB down", job.toStatus().getError());
+    }
+}
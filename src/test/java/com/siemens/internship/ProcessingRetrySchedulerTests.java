@@ -0,0 +1,60 @@
+package com.siemens.internship;
+
+import com.siemens.internship.model.ProcessingResult;
+import com.siemens.internship.service.ItemService;
+import com.siemens.internship.service.ProcessingFailureService;
+import com.siemens.internship.service.ProcessingRetryScheduler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProcessingRetrySchedulerTests {
+
+    @Mock
+    ItemService itemService;
+
+    @Mock
+    ProcessingFailureService failureService;
+
+    ProcessingRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        scheduler = new ProcessingRetryScheduler(itemService, failureService);
+    }
+
+    @Test
+    void retryDueFailures_ShouldSkipTicks_WhilePreviousRunIsInProgress() {
+        CompletableFuture<ProcessingResult> run = new CompletableFuture<>();
+        when(failureService.hasPending()).thenReturn(true);
+        when(itemService.retryFailedItems(any(), any(), eq(true))).thenReturn(run);
+
+        // returns without waiting for the run
+        scheduler.retryDueFailures();
+        scheduler.retryDueFailures();
+        verify(itemService, times(1)).retryFailedItems(any(), any(), eq(true));
+
+        run.complete(new ProcessingResult(1, 0, 1));
+        when(itemService.retryFailedItems(any(), any(), eq(true)))
+                .thenReturn(CompletableFuture.completedFuture(new ProcessingResult(0, 0, 0)));
+        scheduler.retryDueFailures();
+        verify(itemService, times(2)).retryFailedItems(any(), any(), eq(true));
+    }
+
+    @Test
+    void retryDueFailures_ShouldNotStartRun_WhenNothingIsPending() {
+        when(failureService.hasPending()).thenReturn(false);
+
+        scheduler.retryDueFailures();
+
+        verify(itemService, never()).retryFailedItems(any(), any(), anyBoolean());
+    }
+}
@@ -0,0 +1,71 @@
+package com.siemens.internship;
+
+import com.siemens.internship.config.SampledLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SampledLogTests {
+
+    Logger logger;
+
+    AtomicLong clock;
+
+    SampledLog sampledLog;
+
+    @BeforeEach
+    void setUp() {
+        logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        clock = new AtomicLong();
+        sampledLog = new SampledLog(logger, "Item lookups", Duration.ofSeconds(10), clock::get);
+    }
+
+    @Test
+    void count_ShouldWriteOneSummaryPerInterval() {
+        for (int i = 0; i < 1000; i++) {
+            sampledLog.count(i % 100 == 0 ? "missing" : "found");
+        }
+        verify(logger, never()).info(anyString(), any(), any(), any());
+
+        clock.set(Duration.ofSeconds(12).toNanos());
+        sampledLog.count("found");
+        sampledLog.count("found");
+
+        verify(logger, times(1)).info("{} in the last {}: {}", "Item lookups", Duration.ofSeconds(12),
+                Map.of("found", 991L, "missing", 10L));
+    }
+
+    @Test
+    void count_ShouldStartTheNextSummaryFromZero() {
+        clock.set(Duration.ofSeconds(10).toNanos());
+        sampledLog.count("found");
+        clock.set(Duration.ofSeconds(20).toNanos());
+        sampledLog.count("missing");
+
+        verify(logger, times(1)).info(anyString(), eq("Item lookups"), any(), eq(Map.of("found", 1L)));
+        verify(logger, times(1)).info(anyString(), eq("Item lookups"), any(), eq(Map.of("missing", 1L)));
+    }
+
+    @Test
+    void count_ShouldNotFormatSummary_WhenInfoIsDisabled() {
+        when(logger.isInfoEnabled()).thenReturn(false);
+        clock.set(Duration.ofSeconds(10).toNanos());
+
+        sampledLog.count("found");
+
+        verify(logger, never()).info(anyString(), any(), any(), any());
+        assertThrows(IllegalArgumentException.class,
+                () -> new SampledLog(logger, "Item lookups", Duration.ZERO, clock::get));
+    }
+}